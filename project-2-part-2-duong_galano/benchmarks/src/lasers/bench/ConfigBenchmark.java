@@ -0,0 +1,107 @@
+package lasers.bench;
+
+import lasers.backtracking.Configuration;
+import lasers.backtracking.SolverMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.FileNotFoundException;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Configuration operations the backtracker calls at every
+ * node: isValid, isGoal and getSuccessors.  They are measured on a
+ * configuration part way into the search, reached by always taking the
+ * first valid successor that is not a goal, since the initial
+ * configuration has almost nothing decided and a goal has nothing left
+ * to decide.  (Propagation solves some safes outright, and then the
+ * initial configuration is all there is.)
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigBenchmark {
+    /** the safe to take the configuration from, from the tests directory */
+    @Param({"8x8safe.txt", "14x14safe.txt", "20x36safe-hard.txt"})
+    public String file;
+
+    /** the board representation being measured */
+    @Param({"string", "incremental", "bitboard", "propagate"})
+    public String mode;
+
+    /** how many levels below the initial configuration to go, at most */
+    @Param({"40"})
+    public int depth;
+
+    /** the configuration measured */
+    private Configuration config;
+
+    /**
+     * Reads the safe and walks down to the configuration to measure
+     * @throws FileNotFoundException if the tests directory is not in the working directory
+     */
+    @Setup(Level.Trial)
+    public void load() throws FileNotFoundException {
+        Configuration current = SolverMode.valueOf(this.mode.toUpperCase()).initial(SafeBenchmarks.safe(this.file));
+        for (int level = 0; level < this.depth && !current.isGoal(); level++) {
+            Configuration next = null;
+            Iterator<Configuration> successors = current.successors();
+            while (next == null && successors.hasNext()) {
+                Configuration child = successors.next();
+                if (child.isValid() && !child.isGoal()) {
+                    next = child;
+                }
+            }
+            if (next == null) {
+                break;
+            }
+            current = next;
+        }
+        this.config = current;
+    }
+
+    /**
+     * Checks the configuration is valid
+     * @return the result, so that the call cannot be optimised away
+     */
+    @Benchmark
+    public boolean isValid() {
+        return this.config.isValid();
+    }
+
+    /**
+     * Checks whether the configuration is a goal
+     * @return the result, so that the call cannot be optimised away
+     */
+    @Benchmark
+    public boolean isGoal() {
+        return this.config.isGoal();
+    }
+
+    /**
+     * Builds every successor of the configuration
+     * @return the successors, so that the call cannot be optimised away
+     */
+    @Benchmark
+    public Collection<Configuration> getSuccessors() {
+        return this.config.getSuccessors();
+    }
+
+    /**
+     * Builds only the first successor, as the lazy iterator lets the
+     * backtracker do when that successor leads to a goal
+     * @return the successor, or null if there is none
+     */
+    @Benchmark
+    public Configuration firstSuccessor() {
+        Iterator<Configuration> successors = this.config.successors();
+        return successors.hasNext() ? successors.next() : null;
+    }
+}
@@ -0,0 +1,138 @@
+package lasers.bench;
+
+import lasers.backtracking.Backtracker;
+import lasers.backtracking.Configuration;
+import lasers.backtracking.SolverMode;
+import lasers.model.LasersModel;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.FileNotFoundException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the LasersModel commands a player issues: adding a laser,
+ * removing one, undoing and redoing, and verifying the board.  The model
+ * is loaded with the solution of the safe, so verify finds nothing wrong
+ * and reports the whole board verified, and the laser added and removed
+ * is the first laser of that solution.  Adding and removing undo each
+ * other, so each is measured with the other run in an invocation-level
+ * setup that is left out of the timing.  Each benchmark runs in its own
+ * fork, so verify always sees the full solution.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+    /** the safe to play, from the tests directory */
+    @Param({"8x8safe.txt", "14x14safe.txt", "20x36safe-hard.txt"})
+    public String file;
+
+    /** the model being played */
+    private LasersModel model;
+    /** the command adding or removing the first laser of the solution */
+    private String[] laser;
+
+    /**
+     * Loads the safe and places the lasers of its solution
+     * @throws FileNotFoundException if the tests directory is not in the working directory
+     */
+    @Setup(Level.Trial)
+    public void load() throws FileNotFoundException {
+        String filename = SafeBenchmarks.safe(this.file);
+        this.model = new LasersModel(filename);
+        Configuration solution = new Backtracker(false)
+                .solve(SolverMode.PROPAGATE.initial(filename)).orElseThrow();
+        String[] cells = solution.toString().trim().split("\\s+");
+        for (int k = 0; k < cells.length; k++) {
+            if (cells[k].equals("L")) {
+                String[] add = {"a", String.valueOf(k / this.model.getCol()), String.valueOf(k % this.model.getCol())};
+                this.model.add(add);
+                if (this.laser == null) {
+                    this.laser = add;
+                }
+            }
+        }
+    }
+
+    /**
+     * The solved board with the laser taken off before every invocation,
+     * so that add has something to do
+     */
+    @State(Scope.Thread)
+    public static class Cleared {
+        /** the enclosing state, loaded with the solution */
+        private ModelBenchmark board;
+
+        /**
+         * Takes the laser off
+         * @param board the enclosing state
+         */
+        @Setup(Level.Invocation)
+        public void clear(ModelBenchmark board) {
+            this.board = board;
+            board.model.remove(board.laser);
+        }
+    }
+
+    /**
+     * The solved board with the laser put back before every invocation,
+     * so that remove has something to do
+     */
+    @State(Scope.Thread)
+    public static class Solved {
+        /** the enclosing state, loaded with the solution */
+        private ModelBenchmark board;
+
+        /**
+         * Puts the laser back
+         * @param board the enclosing state
+         */
+        @Setup(Level.Invocation)
+        public void restore(ModelBenchmark board) {
+            this.board = board;
+            board.model.add(board.laser);
+        }
+    }
+
+    /**
+     * Adds the laser back
+     * @param cleared the board with the laser taken off
+     */
+    @Benchmark
+    public void add(Cleared cleared) {
+        this.model.add(this.laser);
+    }
+
+    /**
+     * Removes the laser
+     * @param solved the board with the laser put back
+     */
+    @Benchmark
+    public void remove(Solved solved) {
+        this.model.remove(this.laser);
+    }
+
+    /**
+     * Undoes the last laser of the solution and redoes it, which leaves
+     * the board and the history as they were
+     */
+    @Benchmark
+    public void undoRedo() {
+        this.model.undo();
+        this.model.redo();
+    }
+
+    /**
+     * Verifies the solved board
+     */
+    @Benchmark
+    public void verify() {
+        this.model.verify();
+    }
+}
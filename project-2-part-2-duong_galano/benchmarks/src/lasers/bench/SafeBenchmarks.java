@@ -0,0 +1,56 @@
+package lasers.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * This is the main class for running the benchmarks.  It runs them with
+ * the GC profiler, which reports bytes allocated per operation next to
+ * every time, and writes the results as JSON to
+ * benchmarks/results/label.json so that runs on different commits can be
+ * compared, for example with the commit hash as the label.
+ *
+ * The benchmarks need JMH (jmh-core and jmh-generator-annprocess) on the
+ * classpath of this module and annotation processing turned on.  Run it
+ * from the project directory so that the tests directory can be found.
+ * The JMH command line, with -prof gc -rf json, works just as well.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+public class SafeBenchmarks {
+    /** directory the safes are read from, relative to the working directory */
+    private static final String SAFE_DIR = "tests";
+    /** directory the JSON results are written to */
+    private static final String RESULT_DIR = "benchmarks/results";
+
+    /**
+     * Gets the path of a safe from the tests directory
+     * @param file String for the name of the file
+     * @return String for its path
+     */
+    static String safe(String file) {
+        return SAFE_DIR + File.separator + file;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        if (args.length < 1 || args.length > 2) {
+            System.out.println("Usage: java SafeBenchmarks label [benchmark-regex]");
+        } else {
+            new File(RESULT_DIR).mkdirs();
+            Options options = new OptionsBuilder()
+                    .include(args.length == 2 ? args[1] : "lasers\\.bench\\..*")
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(RESULT_DIR + File.separator + args[0] + ".json")
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
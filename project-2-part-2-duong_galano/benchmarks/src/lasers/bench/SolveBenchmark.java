@@ -0,0 +1,65 @@
+package lasers.bench;
+
+import lasers.backtracking.Backtracker;
+import lasers.backtracking.Configuration;
+import lasers.backtracking.SolverMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.FileNotFoundException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast whole safes from the tests directory are solved,
+ * both as throughput and as a latency distribution.  The initial
+ * configuration is read once per trial; the backtracker never changes
+ * it, so every invocation solves the same safe from scratch.
+ *
+ * The string and incremental modes take minutes on the 20x36 safes, so
+ * by default only the faster modes are run; pass -p mode=string with a
+ * smaller -p file list to measure those.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolveBenchmark {
+    /** the safe to solve, from the tests directory */
+    @Param({"4x4safe.txt", "7x7safe.txt", "8x8safe.txt", "10x8safe.txt", "14x14safe.txt",
+            "10x18safe-easy.txt", "10x18safe-medium.txt", "14x24safe-medium.txt", "14x24safe-hard.txt",
+            "20x36safe-easy.txt", "20x36safe-medium.txt", "20x36safe-hard.txt"})
+    public String file;
+
+    /** the board representation to solve with */
+    @Param({"bitboard", "propagate", "constrained"})
+    public String mode;
+
+    /** the configuration read from the file */
+    private Configuration initial;
+    /** the backtracker doing the solving */
+    private Backtracker backtracker;
+
+    /**
+     * Reads the safe
+     * @throws FileNotFoundException if the tests directory is not in the working directory
+     */
+    @Setup(Level.Trial)
+    public void load() throws FileNotFoundException {
+        this.initial = SolverMode.valueOf(this.mode.toUpperCase()).initial(SafeBenchmarks.safe(this.file));
+        this.backtracker = new Backtracker(false);
+    }
+
+    /**
+     * Solves the safe
+     * @return the solution, so that the solve cannot be optimised away
+     */
+    @Benchmark
+    public Optional<Configuration> solve() {
+        return this.backtracker.solve(this.initial);
+    }
+}
@@ -0,0 +1,388 @@
+package lasers.backtracking;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * This class represents the classic recursive backtracking algorithm.
+ * It has a solver that can take a valid configuration and return a
+ * solution, if one exists.
+ *
+ * This file comes from the backtracking lecture. It should be useful
+ * in this project. A second method has been added that you should
+ * implement.
+ *
+ * @author RIT CS
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+public class Backtracker {
+
+    private boolean debug;
+    /** configurations proven to have no goal, or null to not remember them */
+    private TranspositionTable table;
+    /** where the search counts what it does, or null to not count */
+    private SearchStats stats;
+
+    /**
+     * Initialize a new backtracker.
+     *
+     * @param debug Is debugging output enabled?
+     */
+    public Backtracker(boolean debug) {
+        this(debug, null);
+    }
+
+    /**
+     * Initialize a new backtracker that skips configurations it has
+     * already proven to have no goal.  Only configurations that are
+     * HashedConfigurations are looked up and remembered.
+     *
+     * @param debug Is debugging output enabled?
+     * @param table where dead configurations are remembered, or null
+     */
+    public Backtracker(boolean debug, TranspositionTable table) {
+        this.debug = debug;
+        this.table = table;
+        if (this.debug) {
+            System.out.println("Backtracker debugging enabled...");
+        }
+    }
+
+    /**
+     * A utility routine for printing out various debug messages.
+     *
+     * @param msg    The type of config being looked at (current, goal,
+     *               successor, e.g.)
+     * @param config The config to display
+     */
+    private void debugPrint(String msg, Configuration config) {
+        if (this.debug) {
+            System.out.println(msg + ":\n" + config);
+        }
+    }
+
+    /**
+     * Try find a solution, if one exists, for a given configuration.
+     *
+     * @param config A valid configuration
+     * @return A solution config, or Optional.empty() if no solution
+     */
+    public Optional<Configuration> solve(Configuration config) {
+        return solve(config, 0);
+    }
+
+    /**
+     * The recursive search below a configuration
+     *
+     * @param config A valid configuration
+     * @param depth its depth below the initial configuration
+     * @return A solution config, or Optional.empty() if no solution
+     */
+    private Optional<Configuration> solve(Configuration config, int depth) {
+        debugPrint("Current config", config);
+        if (isKnownDead(config)) {
+            debugPrint("\tKnown dead config", config);
+            return Optional.empty();
+        }
+        if (isGoal(config)) {
+            debugPrint("\tGoal config", config);
+            return Optional.of(config);
+        } else {
+            // successors are built one at a time, so any after the one
+            // leading to a goal are never built
+            Iterator<Configuration> successors = expand(config, depth);
+            while (successors.hasNext()) {
+                Configuration child = generate(successors);
+                if (isValid(child)) {
+                    debugPrint("\tValid successor", child);
+                    Optional<Configuration> sol = solve(child, depth + 1);
+                    if (sol.isPresent()) {
+                        return sol;
+                    }
+                } else {
+                    debugPrint("\tInvalid successor", child);
+                }
+            }
+            // implicit backtracking happens here
+        }
+        markDead(config);
+        return Optional.empty();
+    }
+
+    /**
+     * Try find a solution within the limits of a request.  The search is
+     * run without recursion, by IterativeBacktracker, and visits the
+     * configurations in the same order as solve.
+     *
+     * @param request the initial configuration and the limits
+     * @return how the solve ended, with the solution or the deepest
+     * partial board reached
+     */
+    public SolveResult solve(SolveRequest request) {
+        IterativeBacktracker bt = new IterativeBacktracker(this.debug, this.table, false);
+        bt.setStatistics(this.stats);
+        return bt.solve(request);
+    }
+
+    /**
+     * Sets where the search counts what it does
+     *
+     * @param stats the counters to add to, or null to not count
+     */
+    public void setStatistics(SearchStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Checks a configuration is valid, counting it if statistics are on
+     *
+     * @param config the configuration
+     * @return true if valid; false otherwise
+     */
+    private boolean isValid(Configuration config) {
+        return this.stats == null ? config.isValid() : this.stats.isValid(config);
+    }
+
+    /**
+     * Checks whether a configuration is a goal, timing it if statistics are on
+     *
+     * @param config the configuration
+     * @return true if goal; false otherwise
+     */
+    private boolean isGoal(Configuration config) {
+        return this.stats == null ? config.isGoal() : this.stats.isGoal(config);
+    }
+
+    /**
+     * Starts generating the successors of a configuration, counting it if
+     * statistics are on
+     *
+     * @param config the configuration
+     * @param depth its depth below the initial configuration
+     * @return its successors
+     */
+    private Iterator<Configuration> expand(Configuration config, int depth) {
+        if (this.stats != null) {
+            this.stats.expanded(depth);
+        }
+        return config.successors();
+    }
+
+    /**
+     * Gets the next successor, counting it if statistics are on
+     *
+     * @param successors the successors not yet tried
+     * @return the next one
+     */
+    private Configuration generate(Iterator<Configuration> successors) {
+        if (this.stats != null) {
+            this.stats.generated();
+        }
+        return successors.next();
+    }
+
+    /**
+     * Checks the transposition table for a configuration
+     *
+     * @param config the configuration about to be expanded
+     * @return true if it is already known to have no goal
+     */
+    private boolean isKnownDead(Configuration config) {
+        return this.table != null && config instanceof HashedConfiguration
+                && this.table.isDead(((HashedConfiguration) config).hashKey());
+    }
+
+    /**
+     * Remembers that a configuration has no goal below it
+     *
+     * @param config the configuration that was fully searched
+     */
+    private void markDead(Configuration config) {
+        if (this.table != null && config instanceof HashedConfiguration) {
+            this.table.markDead(((HashedConfiguration) config).hashKey());
+        }
+    }
+
+    /**
+     * Find a goal configuration if it exists, and how to get there.
+     *
+     * @param current the starting configuration
+     * @return a list of configurations to get to a goal configuration.
+     * If there are none, return null.
+     */
+    public List<Configuration> solveWithPath(Configuration current) {
+        return solveWithPath(current, 0);
+    }
+
+    /**
+     * The recursive search for a path below a configuration
+     *
+     * @param current the configuration
+     * @param depth its depth below the starting configuration
+     * @return a list of configurations to get to a goal configuration.
+     * If there are none, return null.
+     */
+    private List<Configuration> solveWithPath(Configuration current, int depth) {
+        if (isKnownDead(current)) {
+            return null;
+        }
+        List<Configuration> list = new LinkedList<>();
+        list.add(current);
+        if (isGoal(current)) {
+            return list;
+        }
+        else {
+            Iterator<Configuration> successors = expand(current, depth);
+            while (successors.hasNext()) {
+                Configuration successor = generate(successors);
+                if (isValid(successor)) {
+                    List<Configuration> path = solveWithPath(successor, depth + 1);
+                    if (path != null) {
+                        list.addAll(path);
+                        return list;
+                    }
+                }
+            }
+        }
+        markDead(current);
+        return null;
+    }
+
+    /**
+     * Find out whether a configuration has no, one, or several solutions.
+     * The search stops the moment a second goal is found.
+     *
+     * @param config A valid configuration
+     * @return the verdict, with the solutions found as witnesses
+     */
+    public Uniqueness checkUniqueness(Configuration config) {
+        return new Uniqueness(solutions(config).limit(2).collect(Collectors.toList()));
+    }
+
+    /**
+     * Lazily enumerate every solution reachable from a configuration.
+     * The search only runs as far as the stream is consumed, so
+     * limit(n) or findFirst() stop it early.  A parallel stream splits
+     * unexplored subtrees off to other threads; solutions then come out
+     * in no particular order.
+     *
+     * @param config A valid configuration
+     * @return a stream of the goal configurations
+     */
+    public Stream<Configuration> solutions(Configuration config) {
+        return StreamSupport.stream(new SolutionSpliterator(config), false);
+    }
+
+    /**
+     * A depth-first search over an explicit stack of valid configurations
+     * that hands out one goal per advance.  Goals are not expanded any
+     * further, just as solve stops at a goal, so the same board is never
+     * reported twice.
+     */
+    private static class SolutionSpliterator implements Spliterator<Configuration> {
+        /** valid configurations still to be searched, next one first */
+        private final Deque<Configuration> stack;
+
+        /**
+         * Creates a spliterator over the subtree below a configuration
+         * @param config the root of the subtree
+         */
+        SolutionSpliterator(Configuration config) {
+            this.stack = new ArrayDeque<>();
+            this.stack.push(config);
+        }
+
+        /**
+         * Creates a spliterator over subtrees split off from another one
+         * @param stack the roots of the subtrees, next one first
+         */
+        private SolutionSpliterator(Deque<Configuration> stack) {
+            this.stack = stack;
+        }
+
+        /**
+         * Searches until the next goal and hands it to the action
+         * @param action what to do with the goal
+         * @return false once the subtree has no goals left
+         */
+        @Override
+        public boolean tryAdvance(Consumer<? super Configuration> action) {
+            while (!this.stack.isEmpty()) {
+                Configuration config = this.stack.pop();
+                if (config.isGoal()) {
+                    action.accept(config);
+                    return true;
+                }
+                expand(config);
+            }
+            return false;
+        }
+
+        /**
+         * Pushes the valid successors of a configuration so that the
+         * first successor is searched first
+         * @param config the configuration to expand
+         */
+        private void expand(Configuration config) {
+            List<Configuration> valid = new ArrayList<>();
+            for (Configuration child : config.getSuccessors()) {
+                if (child.isValid()) {
+                    valid.add(child);
+                }
+            }
+            for (int i = valid.size() - 1; i >= 0; i--) {
+                this.stack.push(valid.get(i));
+            }
+        }
+
+        /**
+         * Hands the shallowest half of the unexplored subtrees, the biggest
+         * ones, to a new spliterator
+         * @return the new spliterator, or null if there is nothing to split
+         */
+        @Override
+        public Spliterator<Configuration> trySplit() {
+            // a single root that is not a goal can be opened up to split it
+            while (this.stack.size() == 1 && !this.stack.peek().isGoal()) {
+                expand(this.stack.pop());
+            }
+            if (this.stack.size() < 2) {
+                return null;
+            }
+            Deque<Configuration> split = new ArrayDeque<>();
+            for (int i = this.stack.size() / 2; i > 0; i--) {
+                split.push(this.stack.removeLast());
+            }
+            return new SolutionSpliterator(split);
+        }
+
+        /**
+         * The number of solutions is not known in advance
+         * @return Long.MAX_VALUE
+         */
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        /**
+         * Solutions are never null
+         * @return NONNULL
+         */
+        @Override
+        public int characteristics() {
+            return NONNULL;
+        }
+    }
+}
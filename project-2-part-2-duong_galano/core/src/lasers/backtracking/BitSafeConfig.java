@@ -0,0 +1,518 @@
+package lasers.backtracking;
+
+import lasers.model.SafeFile;
+
+import java.io.FileNotFoundException;
+import java.util.*;
+
+/**
+ * A safe configuration that keeps the board as packed long[] bitsets
+ * instead of a grid of ModelData strings.  Lasers and beams are stored
+ * twice, once in row-major order (bit r*cols+c) and once in column-major
+ * order (bit c*rows+r), so that both the row segment and the column
+ * segment of any cell are a contiguous run of bits.  Casting a beam and
+ * checking whether a laser can see another laser are then word-level
+ * mask operations over that run.
+ *
+ * Walls (pillars and X's) never change and are shared between every
+ * configuration derived from the same file.  The branching order is the
+ * same row-major cursor used by SafeConfig.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+public class BitSafeConfig implements DiagnosedConfiguration {
+    /** number of bits in a word */
+    private static final int WORD = 64;
+
+    /** number of rows of the board */
+    private final int row;
+    /** number of columns of the board */
+    private final int col;
+    /** walls (pillars and X's) in row-major order, padded past the board */
+    private final long[] wallsR;
+    /** walls (pillars and X's) in column-major order, padded past the board */
+    private final long[] wallsC;
+    /** pillars in row-major order, indexed by the digit on the pillar */
+    private final long[][] pillars;
+    /** last row-major index that must be decided before a dark cell is dead */
+    private final int[] deadline;
+
+    /** lasers in row-major order */
+    private long[] lasersR;
+    /** lasers in column-major order */
+    private long[] lasersC;
+    /** lit cells in row-major order */
+    private long[] beamsR;
+    /** lit cells in column-major order */
+    private long[] beamsC;
+    /** row-major index of the last decided cell */
+    private int cursor;
+    /** whether the last laser placed can see another laser */
+    private boolean conflict;
+    /** the rule broken when isValid last returned false */
+    private PruneReason pruneReason;
+
+    /**
+     * Creates a bitboard configuration based off the filename
+     * @param filename String for the name of the file
+     * @throws FileNotFoundException if the file does not exist
+     */
+    public BitSafeConfig(String filename) throws FileNotFoundException {
+        this(SafeFile.read(filename));
+    }
+
+    /**
+     * Creates a bitboard configuration from an already read safe
+     * @param safe SafeFile holding the cells
+     */
+    public BitSafeConfig(SafeFile safe) {
+        this.row = safe.getRow();
+        this.col = safe.getCol();
+        int words = (this.row * this.col + WORD - 1) / WORD;
+        this.wallsR = new long[words];
+        this.wallsC = new long[words];
+        this.pillars = new long[5][words];
+        for (int i = 0; i < this.row; i++) {
+            for (int j = 0; j < this.col; j++) {
+                char t = safe.getCell(i, j);
+                if (t != '.') {
+                    set(this.wallsR, i * this.col + j);
+                    set(this.wallsC, j * this.row + i);
+                    if (t >= '0' && t <= '4') {
+                        set(this.pillars[t - '0'], i * this.col + j);
+                    }
+                }
+            }
+        }
+        // pad the unused tail of the last word with walls so that whole
+        // word scans never see phantom empty cells
+        for (int i = this.row * this.col; i < words * WORD; i++) {
+            set(this.wallsR, i);
+            set(this.wallsC, i);
+        }
+        this.deadline = new int[this.row * this.col];
+        for (int i = 0; i < this.row; i++) {
+            for (int j = 0; j < this.col; j++) {
+                int rightEnd = rowEnd(i, j) - 1;
+                int bottom = colEnd(i, j) - 1 - j * this.row;
+                this.deadline[i * this.col + j] = Math.max(rightEnd, bottom * this.col + j);
+            }
+        }
+        this.lasersR = new long[words];
+        this.lasersC = new long[words];
+        this.beamsR = new long[words];
+        this.beamsC = new long[words];
+        this.cursor = -1;
+        this.conflict = false;
+    }
+
+    /**
+     * Creates a bitboard configuration that decides the next cell of another one
+     * @param other BitSafeConfig representing the other configuration
+     * @param cursor row-major index of the cell being decided
+     * @param add boolean whether or not a laser should be added
+     */
+    private BitSafeConfig(BitSafeConfig other, int cursor, boolean add) {
+        this.row = other.row;
+        this.col = other.col;
+        this.wallsR = other.wallsR;
+        this.wallsC = other.wallsC;
+        this.pillars = other.pillars;
+        this.deadline = other.deadline;
+        this.cursor = cursor;
+        this.conflict = other.conflict;
+        if (add) {
+            this.lasersR = other.lasersR.clone();
+            this.lasersC = other.lasersC.clone();
+            this.beamsR = other.beamsR.clone();
+            this.beamsC = other.beamsC.clone();
+            add(cursor / this.col, cursor % this.col);
+        } else {
+            // nothing changes on the board, so the bitsets can be shared
+            this.lasersR = other.lasersR;
+            this.lasersC = other.lasersC;
+            this.beamsR = other.beamsR;
+            this.beamsC = other.beamsC;
+        }
+    }
+
+    /**
+     * Creates the configurations that decide the next cell.  A wall has
+     * only one successor since a laser can never go there.
+     * @return a Collection of all the successors
+     */
+    @Override
+    public Collection<Configuration> getSuccessors() {
+        List<Configuration> successors = new LinkedList<>();
+        successors().forEachRemaining(successors::add);
+        return successors;
+    }
+
+    /**
+     * Lazily creates the configurations that decide the next cell, the
+     * one with a laser first
+     * @return an Iterator over the successors
+     */
+    @Override
+    public Iterator<Configuration> successors() {
+        int next = this.cursor + 1;
+        if (next >= this.row * this.col) {
+            return Collections.emptyIterator();
+        }
+        boolean wall = get(this.wallsR, next);
+        return new SuccessorIterator(wall ? 1 : 2,
+                i -> new BitSafeConfig(this, next, !wall && i == 0));
+    }
+
+    /**
+     * Places a laser and casts its beams along its row and column segments
+     * @param r int for the laser row coordinate
+     * @param c int for the laser col coordinate
+     */
+    private void add(int r, int c) {
+        int i = r * this.col + c;
+        int j = c * this.row + r;
+        int left = rowStart(r, c);
+        int right = rowEnd(r, c);
+        int top = colStart(r, c);
+        int bottom = colEnd(r, c);
+        if (anyInRange(this.lasersR, left, right) || anyInRange(this.lasersC, top, bottom)) {
+            this.conflict = true;
+        }
+        set(this.lasersR, i);
+        set(this.lasersC, j);
+        // the segment in the matching orientation is one contiguous range
+        setRange(this.beamsR, left, right);
+        setRange(this.beamsC, top, bottom);
+        // the crossing orientation has to be copied one bit at a time
+        for (int k = left; k < right; k++) {
+            set(this.beamsC, (k - r * this.col) * this.row + r);
+        }
+        for (int k = top; k < bottom; k++) {
+            set(this.beamsR, (k - c * this.row) * this.col + c);
+        }
+    }
+
+    /**
+     * Called by the backtracker to check whether or not a certain configuration is valid
+     * @return true if the configuration is valid
+     */
+    @Override
+    public boolean isValid() {
+        if (this.conflict) {
+            this.pruneReason = PruneReason.LASER_SEES_LASER;
+            return false;
+        }
+        for (int d = 0; d <= 4; d++) {
+            long[] p = this.pillars[d];
+            for (int w = 0; w < p.length; w++) {
+                long bits = p[w];
+                while (bits != 0) {
+                    int i = w * WORD + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    int count = countPillar(i);
+                    if (count > d) {
+                        this.pruneReason = PruneReason.PILLAR_OVERFULL;
+                        return false;
+                    }
+                    if (count + countOpen(i) < d) {
+                        this.pruneReason = PruneReason.PILLAR_STARVED;
+                        return false;
+                    }
+                }
+            }
+        }
+        // a dark cell is dead once every cell that could light it is decided
+        int last = this.cursor / WORD;
+        for (int w = 0; w <= last && w < this.wallsR.length; w++) {
+            long dark = ~(this.wallsR[w] | this.lasersR[w] | this.beamsR[w]);
+            while (dark != 0) {
+                int i = w * WORD + Long.numberOfTrailingZeros(dark);
+                dark &= dark - 1;
+                if (i > this.cursor) {
+                    break;
+                }
+                if (this.deadline[i] <= this.cursor) {
+                    this.pruneReason = PruneReason.UNLIT_UNREACHABLE;
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the rule broken when isValid last returned false
+     * @return the rule, or null if isValid has not returned false
+     */
+    @Override
+    public PruneReason getPruneReason() {
+        return this.pruneReason;
+    }
+
+    /**
+     * Checks to see if the configuration is a valid solution
+     * @return true if the configuration is the solution
+     */
+    @Override
+    public boolean isGoal() {
+        if (this.conflict) {
+            return false;
+        }
+        for (int w = 0; w < this.wallsR.length; w++) {
+            if ((this.wallsR[w] | this.lasersR[w] | this.beamsR[w]) != -1L) {
+                return false;
+            }
+        }
+        for (int d = 0; d <= 4; d++) {
+            long[] p = this.pillars[d];
+            for (int w = 0; w < p.length; w++) {
+                long bits = p[w];
+                while (bits != 0) {
+                    int i = w * WORD + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    if (countPillar(i) != d) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Counts the amount of lasers in the spaces right next to a pillar
+     * @param i row-major index of the pillar
+     * @return int for the amount of lasers
+     */
+    private int countPillar(int i) {
+        int r = i / this.col;
+        int c = i % this.col;
+        int count = 0;
+        if (r > 0 && get(this.lasersR, i - this.col)) { count++; }
+        if (r < this.row - 1 && get(this.lasersR, i + this.col)) { count++; }
+        if (c > 0 && get(this.lasersR, i - 1)) { count++; }
+        if (c < this.col - 1 && get(this.lasersR, i + 1)) { count++; }
+        return count;
+    }
+
+    /**
+     * Counts the undecided, non-wall spaces right next to a pillar
+     * @param i row-major index of the pillar
+     * @return int for the amount of spaces that could still take a laser
+     */
+    private int countOpen(int i) {
+        int r = i / this.col;
+        int c = i % this.col;
+        int count = 0;
+        if (r > 0 && isOpen(i - this.col)) { count++; }
+        if (r < this.row - 1 && isOpen(i + this.col)) { count++; }
+        if (c > 0 && isOpen(i - 1)) { count++; }
+        if (c < this.col - 1 && isOpen(i + 1)) { count++; }
+        return count;
+    }
+
+    /**
+     * Is a cell still undecided and able to take a laser?
+     * @param i row-major index of the cell
+     * @return true if a laser may still be placed there
+     */
+    private boolean isOpen(int i) {
+        return i > this.cursor && !get(this.wallsR, i);
+    }
+
+    /**
+     * Finds the first row-major index of the row segment holding a cell
+     * @param r row of the cell
+     * @param c column of the cell
+     * @return the inclusive start of the segment
+     */
+    private int rowStart(int r, int c) {
+        return Math.max(prevSetBit(this.wallsR, r * this.col + c - 1) + 1, r * this.col);
+    }
+
+    /**
+     * Finds the end of the row segment holding a cell
+     * @param r row of the cell
+     * @param c column of the cell
+     * @return the exclusive row-major end of the segment
+     */
+    private int rowEnd(int r, int c) {
+        return Math.min(nextSetBit(this.wallsR, r * this.col + c + 1), (r + 1) * this.col);
+    }
+
+    /**
+     * Finds the first column-major index of the column segment holding a cell
+     * @param r row of the cell
+     * @param c column of the cell
+     * @return the inclusive start of the segment
+     */
+    private int colStart(int r, int c) {
+        return Math.max(prevSetBit(this.wallsC, c * this.row + r - 1) + 1, c * this.row);
+    }
+
+    /**
+     * Finds the end of the column segment holding a cell
+     * @param r row of the cell
+     * @param c column of the cell
+     * @return the exclusive column-major end of the segment
+     */
+    private int colEnd(int r, int c) {
+        return Math.min(nextSetBit(this.wallsC, c * this.row + r + 1), (c + 1) * this.row);
+    }
+
+    /**
+     * Tests a single bit
+     * @param bits the bitset
+     * @param i index of the bit
+     * @return true if the bit is set
+     */
+    static boolean get(long[] bits, int i) {
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    /**
+     * Sets a single bit
+     * @param bits the bitset
+     * @param i index of the bit
+     */
+    static void set(long[] bits, int i) {
+        bits[i >>> 6] |= 1L << i;
+    }
+
+    /**
+     * Sets every bit in [from, to)
+     * @param bits the bitset
+     * @param from inclusive first index
+     * @param to exclusive last index
+     */
+    static void setRange(long[] bits, int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (first == last) {
+            bits[first] |= firstMask & lastMask;
+        } else {
+            bits[first] |= firstMask;
+            for (int w = first + 1; w < last; w++) {
+                bits[w] = -1L;
+            }
+            bits[last] |= lastMask;
+        }
+    }
+
+    /**
+     * Tests whether any bit in [from, to) is set
+     * @param bits the bitset
+     * @param from inclusive first index
+     * @param to exclusive last index
+     * @return true if at least one bit is set
+     */
+    static boolean anyInRange(long[] bits, int from, int to) {
+        if (from >= to) {
+            return false;
+        }
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (first == last) {
+            return (bits[first] & firstMask & lastMask) != 0;
+        }
+        if ((bits[first] & firstMask) != 0) {
+            return true;
+        }
+        for (int w = first + 1; w < last; w++) {
+            if (bits[w] != 0) {
+                return true;
+            }
+        }
+        return (bits[last] & lastMask) != 0;
+    }
+
+    /**
+     * Finds the next set bit at or after an index
+     * @param bits the bitset
+     * @param from index to start at
+     * @return the index of the set bit, or Integer.MAX_VALUE if there is none
+     */
+    static int nextSetBit(long[] bits, int from) {
+        int w = from >>> 6;
+        if (w >= bits.length) {
+            return Integer.MAX_VALUE;
+        }
+        long word = bits[w] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return w * WORD + Long.numberOfTrailingZeros(word);
+            }
+            if (++w == bits.length) {
+                return Integer.MAX_VALUE;
+            }
+            word = bits[w];
+        }
+    }
+
+    /**
+     * Finds the previous set bit at or before an index
+     * @param bits the bitset
+     * @param from index to start at
+     * @return the index of the set bit, or -1 if there is none
+     */
+    static int prevSetBit(long[] bits, int from) {
+        if (from < 0) {
+            return -1;
+        }
+        int w = from >>> 6;
+        long word = bits[w] & (-1L >>> -(from + 1));
+        while (true) {
+            if (word != 0) {
+                return (w + 1) * WORD - 1 - Long.numberOfLeadingZeros(word);
+            }
+            if (w-- == 0) {
+                return -1;
+            }
+            word = bits[w];
+        }
+    }
+
+    /**
+     * Decodes the bitsets into the symbol of each cell
+     * @return the snapshot
+     */
+    @Override
+    public BoardSnapshot snapshot() {
+        char[] cells = new char[this.row * this.col];
+        for (int i = 0; i < cells.length; i++) {
+            char t = '.';
+            if (get(this.wallsR, i)) {
+                t = 'X';
+                for (int d = 0; d <= 4; d++) {
+                    if (get(this.pillars[d], i)) {
+                        t = (char) ('0' + d);
+                    }
+                }
+            } else if (get(this.lasersR, i)) {
+                t = 'L';
+            } else if (get(this.beamsR, i)) {
+                t = '*';
+            }
+            cells[i] = t;
+        }
+        return new BoardSnapshot(this.row, this.col, cells);
+    }
+
+    /**
+     * Represents the game board in the same manner as SafeConfig
+     * @return the board string
+     */
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+}
@@ -0,0 +1,162 @@
+package lasers.backtracking;
+
+import java.util.Arrays;
+
+/**
+ * A copy of a safe board at one point of a search: the symbol of every
+ * cell, in row-major order, and the cells holding lasers.  It lets a
+ * search hand its board to the model without printing and re-parsing it.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+public class BoardSnapshot {
+    /** every symbol a cell can show */
+    private static final String SYMBOLS = ".X01234L*";
+    /** a shared String for every symbol, indexed by the symbol */
+    private static final String[] STRINGS = new String[128];
+
+    static {
+        for (char symbol : SYMBOLS.toCharArray()) {
+            STRINGS[symbol] = String.valueOf(symbol);
+        }
+    }
+
+    /** number of rows of the board */
+    private final int row;
+    /** number of columns of the board */
+    private final int col;
+    /** the symbol of each cell, in row-major order */
+    private final char[] cells;
+    /** row-major index of each laser, in increasing order */
+    private final int[] lasers;
+
+    /**
+     * Creates a snapshot, taking ownership of the cells
+     * @param row number of rows of the board
+     * @param col number of columns of the board
+     * @param cells the symbol of each cell, in row-major order
+     */
+    public BoardSnapshot(int row, int col, char[] cells) {
+        this.row = row;
+        this.col = col;
+        this.cells = cells;
+        int count = 0;
+        int[] lasers = new int[cells.length];
+        for (int k = 0; k < cells.length; k++) {
+            if (cells[k] == 'L') {
+                lasers[count++] = k;
+            }
+        }
+        this.lasers = Arrays.copyOf(lasers, count);
+    }
+
+    /**
+     * Reads a snapshot back from a board printed by toString
+     * @param board the board, one line per row with a space after each cell
+     * @return the snapshot
+     * @throws IllegalArgumentException if the rows are not all the same
+     * length or hold something other than single cell symbols
+     */
+    public static BoardSnapshot parse(String board) {
+        String[] lines = board.strip().split("\n");
+        int row = lines.length;
+        int col = lines[0].strip().isEmpty() ? 0 : lines[0].strip().split(" +").length;
+        char[] cells = new char[row * col];
+        for (int r = 0; r < row; r++) {
+            String[] tokens = lines[r].strip().split(" +");
+            if (tokens.length != col) {
+                throw new IllegalArgumentException("row " + r + " has " + tokens.length +
+                        " cells, expected " + col);
+            }
+            for (int c = 0; c < col; c++) {
+                if (tokens[c].length() != 1 || SYMBOLS.indexOf(tokens[c].charAt(0)) < 0) {
+                    throw new IllegalArgumentException("bad cell " + tokens[c] + " at (" + r + ", " + c + ")");
+                }
+                cells[r * col + c] = tokens[c].charAt(0);
+            }
+        }
+        return new BoardSnapshot(row, col, cells);
+    }
+
+    /**
+     * Gets the number of rows of the board
+     * @return int for the number of rows
+     */
+    public int getRow() {
+        return this.row;
+    }
+
+    /**
+     * Gets the number of columns of the board
+     * @return int for the number of columns
+     */
+    public int getCol() {
+        return this.col;
+    }
+
+    /**
+     * Gets the symbol of a cell
+     * @param row int for the row of the cell
+     * @param col int for the column of the cell
+     * @return one of . X 0 1 2 3 4 L *
+     */
+    public char getCell(int row, int col) {
+        return this.cells[row * this.col + col];
+    }
+
+    /**
+     * Gets the symbol of a cell as a String.  The same String is returned
+     * for every cell with that symbol.
+     * @param row int for the row of the cell
+     * @param col int for the column of the cell
+     * @return one of . X 0 1 2 3 4 L *
+     */
+    public String getSymbol(int row, int col) {
+        return STRINGS[this.cells[row * this.col + col]];
+    }
+
+    /**
+     * Gets the number of lasers on the board
+     * @return int for the number of lasers
+     */
+    public int getLaserCount() {
+        return this.lasers.length;
+    }
+
+    /**
+     * Gets the row of a laser
+     * @param i int for the index of the laser, in row-major order
+     * @return int for its row
+     */
+    public int getLaserRow(int i) {
+        return this.lasers[i] / this.col;
+    }
+
+    /**
+     * Gets the column of a laser
+     * @param i int for the index of the laser, in row-major order
+     * @return int for its column
+     */
+    public int getLaserCol(int i) {
+        return this.lasers[i] % this.col;
+    }
+
+    /**
+     * Prints the board the way the configurations always have: a newline
+     * before each row and a space after each cell
+     * @return the board
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder(this.row * (2 * this.col + 1));
+        for (int r = 0; r < this.row; ++r) {
+            result.append("\n");
+            for (int c = 0; c < this.col; ++c) {
+                result.append(this.cells[r * this.col + c]);
+                result.append(" ");
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,29 @@
+package lasers.backtracking;
+
+/**
+ * A flag another thread can set to ask a running solve to stop.  The
+ * backtracker checks it at every node, so the solve gives up within one
+ * node of the request and reports what it had reached.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+public class CancellationToken {
+    /** set once cancel has been called */
+    private volatile boolean cancelled;
+
+    /**
+     * Asks every solve holding this token to stop
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    /**
+     * Has the solve been asked to stop?
+     * @return true once cancel has been called
+     */
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+}
@@ -0,0 +1,57 @@
+package lasers.backtracking;
+
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * The representation of a single configuration for a puzzle.
+ * The Backtracker depends on these routines in order to
+ * solve a puzzle.  Therefore, all puzzles must implement this
+ * interface.
+ *
+ * @author RIT CS
+ */
+public interface Configuration {
+    /**
+     * Get the collection of successors from the current one.
+     *
+     * @return All successors, valid and invalid
+     */
+    public Collection< Configuration > getSuccessors();
+
+    /**
+     * Get the successors from the current one one at a time, so that a
+     * successor is only built when the search gets to it.  By default
+     * this walks the collection from getSuccessors.
+     *
+     * @return All successors, valid and invalid, in the same order as
+     * getSuccessors
+     */
+    public default Iterator< Configuration > successors() {
+        return getSuccessors().iterator();
+    }
+
+    /**
+     * Copies the board into a snapshot the model can apply directly.  By
+     * default this parses toString, so configurations that print a board
+     * the way SafeConfig does get it for free.
+     *
+     * @return the board of this configuration
+     */
+    public default BoardSnapshot snapshot() {
+        return BoardSnapshot.parse(toString());
+    }
+
+    /**
+     * Is the current configuration valid or not?
+     *
+     * @return true if valid; false otherwise
+     */
+    public boolean isValid();
+
+    /**
+     * Is the current configuration a goal?
+     * @return true if goal; false otherwise
+     */
+    public boolean isGoal();
+}
\ No newline at end of file
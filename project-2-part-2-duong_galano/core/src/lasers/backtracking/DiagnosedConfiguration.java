@@ -0,0 +1,18 @@
+package lasers.backtracking;
+
+/**
+ * A configuration that can say which rule made it invalid, so that
+ * search statistics can break the pruned configurations down by rule.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+public interface DiagnosedConfiguration extends Configuration {
+    /**
+     * Gets the rule that made isValid return false.  Only meaningful
+     * after isValid has been called and returned false.
+     *
+     * @return the rule broken, or null if it is not known
+     */
+    public PruneReason getPruneReason();
+}
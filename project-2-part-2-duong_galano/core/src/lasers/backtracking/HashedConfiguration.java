@@ -0,0 +1,21 @@
+package lasers.backtracking;
+
+/**
+ * A configuration that can name the subproblem it represents with a
+ * 64-bit hash, so that the backtracker can recognise a board it has
+ * already proven unsolvable when a different order of decisions reaches
+ * it again.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+public interface HashedConfiguration extends Configuration {
+    /**
+     * Gets the hash of everything that decides which goals are reachable
+     * from this configuration.  Two configurations with the same key are
+     * assumed to have the same successors down to the goal.
+     *
+     * @return the 64-bit hash of this configuration
+     */
+    public long hashKey();
+}
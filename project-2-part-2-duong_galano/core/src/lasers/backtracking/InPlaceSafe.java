@@ -0,0 +1,347 @@
+package lasers.backtracking;
+
+import lasers.model.SafeFile;
+
+import java.io.FileNotFoundException;
+
+/**
+ * A mutable safe board that is searched in place.  Instead of copying
+ * the board for every successor, placing a laser modifies this one board
+ * and pushes the laser onto an undo trail; backtracking pops the trail
+ * and takes the laser and the beams it cast back off.  The beams of a
+ * laser are exactly its row and column segments, which are worked out
+ * once per file, so the trail only has to remember where each laser was.
+ *
+ * Every cell keeps a count of the lasers lighting it, so removing a beam
+ * never has to look for other lasers that might still light the cell.
+ * Once constructed, the search allocates nothing.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+public class InPlaceSafe {
+    /** number of decided cells between reads of the clock */
+    private static final int CLOCK_INTERVAL = 256;
+
+    /** number of rows of the board */
+    private final int row;
+    /** number of columns of the board */
+    private final int col;
+    /** symbol of each cell as read from the file, in row-major order */
+    private final char[] cells;
+    /** first column of the row segment holding each cell */
+    private final int[] left;
+    /** last column of the row segment holding each cell */
+    private final int[] right;
+    /** first row of the column segment holding each cell */
+    private final int[] top;
+    /** last row of the column segment holding each cell */
+    private final int[] bottom;
+    /** for each cell, the empty cells that are dead if still dark once it is decided */
+    private final int[][] due;
+
+    /** whether each cell holds a laser */
+    private final boolean[] laser;
+    /** number of lasers lighting each cell */
+    private final int[] lit;
+    /** number of lasers next to each cell, only meaningful for pillars */
+    private final int[] adjacent;
+    /** cells of the lasers currently placed, in placement order */
+    private final int[] trail;
+    /** number of lasers on the trail */
+    private int trailSize;
+    /** number of cells decided by the last search */
+    private long nodes;
+    /** time the search gives up at, or Long.MAX_VALUE for none */
+    private long deadline;
+    /** true once the search has run past its deadline */
+    private boolean expired;
+
+    /**
+     * Creates an in-place board based off the filename
+     * @param filename String for the name of the file
+     * @throws FileNotFoundException if the file does not exist
+     */
+    public InPlaceSafe(String filename) throws FileNotFoundException {
+        this(SafeFile.read(filename));
+    }
+
+    /**
+     * Creates an in-place board from a safe that has already been read
+     * @param safe the parsed safe file
+     */
+    public InPlaceSafe(SafeFile safe) {
+        this.row = safe.getRow();
+        this.col = safe.getCol();
+        int n = this.row * this.col;
+        this.cells = new char[n];
+        for (int k = 0; k < n; k++) {
+            this.cells[k] = safe.getCell(k);
+        }
+        this.left = new int[n];
+        this.right = new int[n];
+        this.top = new int[n];
+        this.bottom = new int[n];
+        for (int i = 0; i < this.row; i++) {
+            for (int j = 0; j < this.col; j++) {
+                int k = i * this.col + j;
+                this.left[k] = j > 0 && isEmpty(k - 1) ? this.left[k - 1] : j;
+                this.top[k] = i > 0 && isEmpty(k - this.col) ? this.top[k - this.col] : i;
+            }
+        }
+        for (int i = this.row - 1; i >= 0; i--) {
+            for (int j = this.col - 1; j >= 0; j--) {
+                int k = i * this.col + j;
+                this.right[k] = j < this.col - 1 && isEmpty(k + 1) ? this.right[k + 1] : j;
+                this.bottom[k] = i < this.row - 1 && isEmpty(k + this.col) ? this.bottom[k + this.col] : i;
+            }
+        }
+        int[] counts = new int[n];
+        for (int k = 0; k < n; k++) {
+            if (isEmpty(k)) {
+                counts[deadline(k)]++;
+            }
+        }
+        this.due = new int[n][];
+        for (int k = 0; k < n; k++) {
+            this.due[k] = new int[counts[k]];
+            counts[k] = 0;
+        }
+        for (int k = 0; k < n; k++) {
+            if (isEmpty(k)) {
+                int d = deadline(k);
+                this.due[d][counts[d]++] = k;
+            }
+        }
+        this.laser = new boolean[n];
+        this.lit = new int[n];
+        this.adjacent = new int[n];
+        this.trail = new int[n];
+        this.trailSize = 0;
+    }
+
+    /**
+     * Is a cell free of walls and pillars?
+     * @param k row-major index of the cell
+     * @return true if the cell is empty
+     */
+    private boolean isEmpty(int k) {
+        return this.cells[k] == '.';
+    }
+
+    /**
+     * The last row-major position that can still light an empty cell
+     * @param k row-major index of the cell
+     * @return the later of the end of its row segment and the bottom of its column segment
+     */
+    private int deadline(int k) {
+        int r = k / this.col;
+        int c = k % this.col;
+        return Math.max(r * this.col + this.right[k], this.bottom[k] * this.col + c);
+    }
+
+    /**
+     * Places a laser, lights its row and column segments and records it on the trail
+     * @param k row-major index of the cell
+     */
+    private void make(int k) {
+        cast(k, 1);
+        this.laser[k] = true;
+        this.trail[this.trailSize++] = k;
+    }
+
+    /**
+     * Takes the most recently placed laser and its beams back off the board
+     */
+    private void unmake() {
+        int k = this.trail[--this.trailSize];
+        this.laser[k] = false;
+        cast(k, -1);
+    }
+
+    /**
+     * Adds a change to the light count of every cell a laser lights and to
+     * the laser count of the pillars around it
+     * @param k row-major index of the laser
+     * @param delta 1 when placing the laser, -1 when taking it back
+     */
+    private void cast(int k, int delta) {
+        int r = k / this.col;
+        int c = k % this.col;
+        for (int j = this.left[k]; j <= this.right[k]; j++) {
+            this.lit[r * this.col + j] += delta;
+        }
+        for (int i = this.top[k]; i <= this.bottom[k]; i++) {
+            if (i != r) {
+                this.lit[i * this.col + c] += delta;
+            }
+        }
+        if (r > 0) { this.adjacent[k - this.col] += delta; }
+        if (r < this.row - 1) { this.adjacent[k + this.col] += delta; }
+        if (c > 0) { this.adjacent[k - 1] += delta; }
+        if (c < this.col - 1) { this.adjacent[k + 1] += delta; }
+    }
+
+    /**
+     * Searches for a solution, leaving the board in the solved state if there is one
+     * @return true if the safe was solved
+     */
+    public boolean solve() {
+        return solve(Long.MAX_VALUE) == SolveResult.Status.SOLVED;
+    }
+
+    /**
+     * Searches for a solution, giving up at a deadline.  The clock is read
+     * every CLOCK_INTERVAL decided cells, as the backtracker does;
+     * on giving up the board is unwound back to empty.
+     * @param deadline time to give up at, in milliseconds since the epoch,
+     *                 or Long.MAX_VALUE for none
+     * @return SOLVED with the board in the solved state, UNSATISFIABLE, or
+     *         BUDGET_EXHAUSTED if the deadline passed first
+     */
+    public SolveResult.Status solve(long deadline) {
+        this.nodes = 0;
+        this.deadline = deadline;
+        this.expired = false;
+        if (search(0)) {
+            return SolveResult.Status.SOLVED;
+        }
+        return this.expired ? SolveResult.Status.BUDGET_EXHAUSTED : SolveResult.Status.UNSATISFIABLE;
+    }
+
+    /**
+     * Gets the number of cells decided by the last search
+     * @return the node count
+     */
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    /**
+     * Decides the cell at a cursor position and everything after it
+     * @param k row-major index of the cell to decide
+     * @return true if a solution was found
+     */
+    private boolean search(int k) {
+        if (this.expired) {
+            return false;
+        }
+        this.nodes++;
+        if (this.nodes % CLOCK_INTERVAL == 0
+                && this.deadline != Long.MAX_VALUE
+                && System.currentTimeMillis() >= this.deadline) {
+            this.expired = true;
+            return false;
+        }
+        if (k == this.cells.length) {
+            return isGoal();
+        }
+        // a lit cell would make the new laser see the one lighting it
+        if (isEmpty(k) && this.lit[k] == 0) {
+            make(k);
+            if (isConsistent(k) && search(k + 1)) {
+                return true;
+            }
+            unmake();
+        }
+        return isConsistent(k) && search(k + 1);
+    }
+
+    /**
+     * Checks what deciding a cell can break: the pillars around it and the
+     * empty cells whose last chance of being lit it was
+     * @param k row-major index of the cell just decided
+     * @return true if the board can still be solved
+     */
+    private boolean isConsistent(int k) {
+        int r = k / this.col;
+        int c = k % this.col;
+        if (r > 0 && !pillarPossible(k - this.col, k)) { return false; }
+        if (r < this.row - 1 && !pillarPossible(k + this.col, k)) { return false; }
+        if (c > 0 && !pillarPossible(k - 1, k)) { return false; }
+        if (c < this.col - 1 && !pillarPossible(k + 1, k)) { return false; }
+        for (int d : this.due[k]) {
+            if (this.lit[d] == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks that a cell, if it is a numbered pillar, is neither overfull
+     * nor starved of the undecided spaces it still needs
+     * @param p row-major index of the cell
+     * @param cursor row-major index of the last decided cell
+     * @return false if the pillar can no longer be satisfied
+     */
+    private boolean pillarPossible(int p, int cursor) {
+        char t = this.cells[p];
+        if (t < '0' || t > '4') {
+            return true;
+        }
+        int need = t - '0';
+        if (this.adjacent[p] > need) {
+            return false;
+        }
+        int r = p / this.col;
+        int c = p % this.col;
+        int open = 0;
+        if (r > 0 && isOpen(p - this.col, cursor)) { open++; }
+        if (r < this.row - 1 && isOpen(p + this.col, cursor)) { open++; }
+        if (c > 0 && isOpen(p - 1, cursor)) { open++; }
+        if (c < this.col - 1 && isOpen(p + 1, cursor)) { open++; }
+        return this.adjacent[p] + open >= need;
+    }
+
+    /**
+     * Is a cell past the cursor and still able to take a laser?
+     * @param k row-major index of the cell
+     * @param cursor row-major index of the last decided cell
+     * @return true if a laser may still be placed there
+     */
+    private boolean isOpen(int k, int cursor) {
+        return k > cursor && isEmpty(k) && this.lit[k] == 0;
+    }
+
+    /**
+     * Checks to see if the board is a valid solution
+     * @return true if the board is the solution
+     */
+    public boolean isGoal() {
+        for (int k = 0; k < this.cells.length; k++) {
+            char t = this.cells[k];
+            if (t == '.' && this.lit[k] == 0) {
+                return false;
+            }
+            if (t >= '0' && t <= '4' && this.adjacent[k] != t - '0') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Represents the game board in the same manner as SafeConfig
+     * @return the board string
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (int r = 0; r < this.row; ++r) {
+            result.append("\n");
+            for (int c = 0; c < this.col; ++c) {
+                int k = r * this.col + c;
+                if (this.laser[k]) {
+                    result.append('L');
+                } else if (isEmpty(k) && this.lit[k] > 0) {
+                    result.append('*');
+                } else {
+                    result.append(this.cells[k]);
+                }
+                result.append(" ");
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,352 @@
+package lasers.backtracking;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The backtracking algorithm of Backtracker with the call stack replaced
+ * by an explicit stack of frames on the heap.  Configurations such as
+ * SafeConfig decide one cell per level, so the recursive search needs
+ * one Java frame per cell and overflows the thread stack on boards of a
+ * few hundred cells a side.  Here each level costs one small Frame
+ * object instead, and the depth is limited only by the heap.
+ *
+ * Successors are visited in the same order, and dead configurations are
+ * remembered at the same points, as in Backtracker, so both find the
+ * same solution and the same path.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+public class IterativeBacktracker {
+
+    private boolean debug;
+    /** configurations proven to have no goal, or null to not remember them */
+    private TranspositionTable table;
+    /** where the search counts what it does, or null to not count */
+    private SearchStats stats;
+
+    /**
+     * Initialize a new iterative backtracker.
+     *
+     * @param debug Is debugging output enabled?
+     */
+    public IterativeBacktracker(boolean debug) {
+        this(debug, null);
+    }
+
+    /**
+     * Initialize a new iterative backtracker that skips configurations it
+     * has already proven to have no goal.  Only configurations that are
+     * HashedConfigurations are looked up and remembered.
+     *
+     * @param debug Is debugging output enabled?
+     * @param table where dead configurations are remembered, or null
+     */
+    public IterativeBacktracker(boolean debug, TranspositionTable table) {
+        this(debug, table, debug);
+    }
+
+    /**
+     * Initialize a new iterative backtracker on behalf of a Backtracker
+     * that has already announced its debugging output.
+     *
+     * @param debug Is debugging output enabled?
+     * @param table where dead configurations are remembered, or null
+     * @param announce whether to say that debugging is enabled
+     */
+    IterativeBacktracker(boolean debug, TranspositionTable table, boolean announce) {
+        this.debug = debug;
+        this.table = table;
+        if (announce) {
+            System.out.println("Backtracker debugging enabled...");
+        }
+    }
+
+    /**
+     * A utility routine for printing out various debug messages.
+     *
+     * @param msg    The type of config being looked at (current, goal,
+     *               successor, e.g.)
+     * @param config The config to display
+     */
+    private void debugPrint(String msg, Configuration config) {
+        if (this.debug) {
+            System.out.println(msg + ":\n" + config);
+        }
+    }
+
+    /**
+     * Try find a solution, if one exists, for a given configuration.
+     *
+     * @param config A valid configuration
+     * @return A solution config, or Optional.empty() if no solution
+     */
+    public Optional<Configuration> solve(Configuration config) {
+        return Optional.ofNullable(search(config, new ArrayDeque<>(), null));
+    }
+
+    /**
+     * Try find a solution within the limits of a request, giving up when
+     * the node budget or the deadline runs out or the request is cancelled.
+     *
+     * @param request the initial configuration and the limits
+     * @return how the solve ended, with the solution or the deepest
+     * partial board reached
+     */
+    public SolveResult solve(SolveRequest request) {
+        long start = System.currentTimeMillis();
+        Deque<Frame> stack = new ArrayDeque<>();
+        Limits limits = new Limits(request);
+        Configuration goal = search(request.getInitial(), stack, limits);
+        long elapsed = System.currentTimeMillis() - start;
+        if (goal != null) {
+            return new SolveResult(SolveResult.Status.SOLVED, goal, goal,
+                    stack.size(), limits.nodes, elapsed);
+        }
+        SolveResult.Status status = limits.stopped != null ?
+                limits.stopped : SolveResult.Status.UNSATISFIABLE;
+        // cancelled before the search even entered the initial configuration
+        if (limits.deepest == null) {
+            return new SolveResult(status, null, request.getInitial(), 0, 0, elapsed);
+        }
+        return new SolveResult(status, null, limits.deepest,
+                limits.depth, limits.nodes, elapsed);
+    }
+
+    /**
+     * Find a goal configuration if it exists, and how to get there.
+     *
+     * @param current the starting configuration
+     * @return a list of configurations to get to a goal configuration.
+     * If there are none, return null.
+     */
+    public List<Configuration> solveWithPath(Configuration current) {
+        Deque<Frame> stack = new ArrayDeque<>();
+        Configuration goal = search(current, stack, null);
+        if (goal == null) {
+            return null;
+        }
+        // the frames still on the stack are the goal's ancestors, root last
+        List<Configuration> path = new LinkedList<>();
+        Iterator<Frame> frames = stack.descendingIterator();
+        while (frames.hasNext()) {
+            path.add(frames.next().config);
+        }
+        path.add(goal);
+        return path;
+    }
+
+    /**
+     * The depth-first search.  Entering a configuration pushes a frame,
+     * and a frame is popped, and its configuration marked dead, once its
+     * successors run out, just as the recursive search returns.
+     *
+     * @param config A valid configuration
+     * @param stack an empty stack, left holding the goal's ancestors
+     * @param limits the limits of a budgeted solve, or null for none
+     * @return the goal found, or null if there is none or the limits ran out
+     */
+    private Configuration search(Configuration config, Deque<Frame> stack, Limits limits) {
+        Configuration next = config;
+        while (true) {
+            // entering a configuration, as a recursive call would
+            if (limits != null && !limits.enter(next, stack.size())) {
+                // the stack is left as it is, so nothing is marked dead
+                return null;
+            }
+            debugPrint("Current config", next);
+            if (isKnownDead(next)) {
+                debugPrint("\tKnown dead config", next);
+            } else if (isGoal(next)) {
+                debugPrint("\tGoal config", next);
+                return next;
+            } else {
+                stack.push(new Frame(next, expand(next, stack.size())));
+            }
+            // find the next valid successor, backtracking out of every
+            // frame whose successors have run out
+            next = null;
+            while (next == null) {
+                Frame frame = stack.peek();
+                if (frame == null) {
+                    return null;
+                }
+                if (!frame.successors.hasNext()) {
+                    // implicit backtracking happens here
+                    stack.pop();
+                    markDead(frame.config);
+                } else {
+                    Configuration child = generate(frame.successors);
+                    if (isValid(child)) {
+                        debugPrint("\tValid successor", child);
+                        next = child;
+                    } else {
+                        debugPrint("\tInvalid successor", child);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets where the search counts what it does
+     *
+     * @param stats the counters to add to, or null to not count
+     */
+    public void setStatistics(SearchStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Checks a configuration is valid, counting it if statistics are on
+     *
+     * @param config the configuration
+     * @return true if valid; false otherwise
+     */
+    private boolean isValid(Configuration config) {
+        return this.stats == null ? config.isValid() : this.stats.isValid(config);
+    }
+
+    /**
+     * Checks whether a configuration is a goal, timing it if statistics are on
+     *
+     * @param config the configuration
+     * @return true if goal; false otherwise
+     */
+    private boolean isGoal(Configuration config) {
+        return this.stats == null ? config.isGoal() : this.stats.isGoal(config);
+    }
+
+    /**
+     * Starts generating the successors of a configuration, counting it if
+     * statistics are on
+     *
+     * @param config the configuration
+     * @param depth its depth below the initial configuration
+     * @return its successors
+     */
+    private Iterator<Configuration> expand(Configuration config, int depth) {
+        if (this.stats != null) {
+            this.stats.expanded(depth);
+        }
+        return config.successors();
+    }
+
+    /**
+     * Gets the next successor, counting it if statistics are on
+     *
+     * @param successors the successors not yet tried
+     * @return the next one
+     */
+    private Configuration generate(Iterator<Configuration> successors) {
+        if (this.stats != null) {
+            this.stats.generated();
+        }
+        return successors.next();
+    }
+
+    /**
+     * Checks the transposition table for a configuration
+     *
+     * @param config the configuration about to be expanded
+     * @return true if it is already known to have no goal
+     */
+    private boolean isKnownDead(Configuration config) {
+        return this.table != null && config instanceof HashedConfiguration
+                && this.table.isDead(((HashedConfiguration) config).hashKey());
+    }
+
+    /**
+     * Remembers that a configuration has no goal below it
+     *
+     * @param config the configuration that was fully searched
+     */
+    private void markDead(Configuration config) {
+        if (this.table != null && config instanceof HashedConfiguration) {
+            this.table.markDead(((HashedConfiguration) config).hashKey());
+        }
+    }
+
+    /**
+     * The limits of a budgeted solve and how much of them has been used.
+     */
+    private static class Limits {
+        /** how often, in nodes, the clock is read */
+        private static final int CLOCK_INTERVAL = 256;
+
+        /** most configurations the search may look at */
+        private final long nodeBudget;
+        /** time after which the search gives up */
+        private final long deadline;
+        /** asks the search to stop, or null */
+        private final CancellationToken cancellation;
+        /** number of configurations looked at */
+        private long nodes;
+        /** the deepest configuration entered */
+        private Configuration deepest;
+        /** its depth */
+        private int depth = -1;
+        /** why the search stopped early, or null if it did not */
+        private SolveResult.Status stopped;
+
+        /**
+         * Takes the limits from a request
+         * @param request the request
+         */
+        Limits(SolveRequest request) {
+            this.nodeBudget = request.getNodeBudget();
+            this.deadline = request.getDeadline();
+            this.cancellation = request.getCancellation();
+        }
+
+        /**
+         * Counts a configuration the search is entering, and checks the limits
+         * @param config the configuration
+         * @param depth its depth below the initial configuration
+         * @return false if the search has to stop instead
+         */
+        boolean enter(Configuration config, int depth) {
+            if (this.cancellation != null && this.cancellation.isCancelled()) {
+                this.stopped = SolveResult.Status.CANCELLED;
+                return false;
+            }
+            if (this.nodes >= this.nodeBudget || (this.nodes % CLOCK_INTERVAL == 0
+                    && this.deadline != Long.MAX_VALUE && System.currentTimeMillis() >= this.deadline)) {
+                this.stopped = SolveResult.Status.BUDGET_EXHAUSTED;
+                return false;
+            }
+            this.nodes++;
+            if (depth > this.depth) {
+                this.deepest = config;
+                this.depth = depth;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * One level of the search: a configuration and how far through its
+     * successors the search has got.
+     */
+    private static class Frame {
+        /** the configuration being expanded */
+        private final Configuration config;
+        /** its successors not yet tried */
+        private final Iterator<Configuration> successors;
+
+        /**
+         * Creates the frame for expanding a configuration
+         * @param config the configuration
+         * @param successors its successors
+         */
+        Frame(Configuration config, Iterator<Configuration> successors) {
+            this.config = config;
+            this.successors = successors;
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package lasers.backtracking;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A backtracker that splits the top of the search tree into fork/join
+ * subtasks so that several cores search different subtrees at once.
+ * Subtrees below the split depth are searched sequentially by the task
+ * that owns them.  All tasks of one search share an atomic goal counter,
+ * so once enough goals have been found (one for solve, two for a
+ * uniqueness check) every other task stops at its next node.
+ *
+ * Like Backtracker it works on any Configuration, but successors of
+ * different subtrees are searched concurrently, so the configurations
+ * must not share mutable state.  When a safe has several solutions,
+ * which one is returned depends on which task gets there first.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+public class ParallelBacktracker {
+    /** default number of levels of the search tree that are split into tasks */
+    public static final int DEFAULT_SPLIT_DEPTH = 16;
+
+    /** the pool the subtree tasks run on */
+    private final ForkJoinPool pool;
+    /** levels of the search tree that are split into tasks */
+    private final int splitDepth;
+    /** configurations proven to have no goal, shared by every worker, or null */
+    private TranspositionTable table;
+    /** where the counters of every worker are merged after a search, or null */
+    private SearchStats stats;
+
+    /**
+     * Initialize a new parallel backtracker using every available core.
+     */
+    public ParallelBacktracker() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Initialize a new parallel backtracker.
+     *
+     * @param parallelism number of worker threads
+     */
+    public ParallelBacktracker(int parallelism) {
+        this(parallelism, DEFAULT_SPLIT_DEPTH);
+    }
+
+    /**
+     * Initialize a new parallel backtracker.
+     *
+     * @param parallelism number of worker threads
+     * @param splitDepth levels of the search tree that are split into tasks
+     */
+    public ParallelBacktracker(int parallelism, int splitDepth) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.splitDepth = splitDepth;
+    }
+
+    /**
+     * Sets the table dead configurations are remembered in.  Only
+     * configurations that are HashedConfigurations are looked up.
+     *
+     * @param table the table, or null to not remember dead configurations
+     */
+    public void setTranspositionTable(TranspositionTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Sets where the search counts what it does.  Each worker thread
+     * counts into its own SearchStats, and they are all merged into this
+     * one at the end of every search.
+     *
+     * @param stats the counters to add to, or null to not count
+     */
+    public void setStatistics(SearchStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Checks the transposition table for a configuration
+     *
+     * @param config the configuration about to be expanded
+     * @return true if it is already known to have no goal
+     */
+    private boolean isKnownDead(Configuration config) {
+        return this.table != null && config instanceof HashedConfiguration
+                && this.table.isDead(((HashedConfiguration) config).hashKey());
+    }
+
+    /**
+     * Remembers that a configuration has no goal below it.  A search cut
+     * short because enough goals were found elsewhere proves nothing, so
+     * it is not recorded.
+     *
+     * @param config the configuration that was searched
+     * @param goals the goal counter of the search
+     */
+    private void markDead(Configuration config, Goals goals) {
+        if (this.table != null && !goals.enough() && config instanceof HashedConfiguration) {
+            this.table.markDead(((HashedConfiguration) config).hashKey());
+        }
+    }
+
+    /**
+     * Try find a solution, if one exists, for a given configuration.
+     *
+     * @param config A valid configuration
+     * @return A solution config, or Optional.empty() if no solution
+     */
+    public Optional<Configuration> solve(Configuration config) {
+        Goals goals = run(config, 1);
+        return Optional.ofNullable(goals.witness(0));
+    }
+
+    /**
+     * Find out whether a configuration has no, one, or several solutions,
+     * stopping every worker as soon as a second solution is found.
+     *
+     * @param config A valid configuration
+     * @return the verdict, with the solutions found as witnesses
+     */
+    public Uniqueness checkUniqueness(Configuration config) {
+        Goals goals = run(config, 2);
+        List<Configuration> found = new ArrayList<>();
+        for (int i = 0; i < 2 && goals.witness(i) != null; i++) {
+            found.add(goals.witness(i));
+        }
+        return new Uniqueness(found);
+    }
+
+    /**
+     * Runs one search on the pool, merging the workers' counters once it
+     * is over if statistics are on
+     *
+     * @param config A valid configuration
+     * @param limit number of goals after which the search stops
+     * @return the goals found
+     */
+    private Goals run(Configuration config, int limit) {
+        if (this.stats == null) {
+            Goals goals = new Goals(limit, null);
+            this.pool.invoke(new SolveTask(config, 0, goals));
+            return goals;
+        }
+        // each search gets its own workers' counters, so searches running
+        // at the same time on the pool do not count into each other
+        Queue<SearchStats> all = new ConcurrentLinkedQueue<>();
+        Goals goals = new Goals(limit, ThreadLocal.withInitial(() -> {
+            SearchStats local = new SearchStats();
+            all.add(local);
+            return local;
+        }));
+        this.pool.invoke(new SolveTask(config, 0, goals));
+        synchronized (this.stats) {
+            for (SearchStats local : all) {
+                this.stats.merge(local);
+            }
+        }
+        return goals;
+    }
+
+    /**
+     * Stops the worker threads once no more solves are needed.
+     */
+    public void shutdown() {
+        this.pool.shutdown();
+    }
+
+    /**
+     * The goals found so far by the tasks of one search, and the counters
+     * its workers keep.
+     */
+    private static class Goals {
+        /** number of goals found, possibly counting past the limit */
+        private final AtomicInteger count = new AtomicInteger();
+        /** the first goals found, up to the limit */
+        private final AtomicReferenceArray<Configuration> witnesses;
+        /** each worker's own counters during this search, or null if not counting */
+        private final ThreadLocal<SearchStats> workerStats;
+
+        /**
+         * Creates an empty counter
+         * @param limit number of goals after which the search stops
+         * @param workerStats each worker's own counters, or null if not counting
+         */
+        Goals(int limit, ThreadLocal<SearchStats> workerStats) {
+            this.witnesses = new AtomicReferenceArray<>(limit);
+            this.workerStats = workerStats;
+        }
+
+        /**
+         * Gets the counters of the worker running the caller
+         * @return the worker's counters for this search, or null if not counting
+         */
+        SearchStats stats() {
+            return this.workerStats == null ? null : this.workerStats.get();
+        }
+
+        /**
+         * Records a goal, keeping it as a witness if it is one of the first
+         * @param goal the goal configuration
+         */
+        void report(Configuration goal) {
+            int n = this.count.getAndIncrement();
+            if (n < this.witnesses.length()) {
+                this.witnesses.set(n, goal);
+            }
+        }
+
+        /**
+         * Have enough goals been found to stop searching?
+         * @return true once the limit is reached
+         */
+        boolean enough() {
+            return this.count.get() >= this.witnesses.length();
+        }
+
+        /**
+         * Gets one of the goals found
+         * @param i which goal, in the order they were found
+         * @return the goal, or null if fewer were found
+         */
+        Configuration witness(int i) {
+            return this.witnesses.get(i);
+        }
+    }
+
+    /**
+     * The search of one subtree of the search tree.
+     */
+    private class SolveTask extends RecursiveTask<Optional<Configuration>> {
+        private static final long serialVersionUID = 1L;
+
+        /** root of the subtree */
+        private final Configuration config;
+        /** depth of the root in the whole search tree */
+        private final int depth;
+        /** the goal counter and worker counters shared by the whole search */
+        private final Goals goals;
+
+        /**
+         * Creates the task for one subtree
+         * @param config root of the subtree, already known to be valid
+         * @param depth depth of the root in the whole search tree
+         * @param goals the goal counter shared by the whole search
+         */
+        SolveTask(Configuration config, int depth, Goals goals) {
+            this.config = config;
+            this.depth = depth;
+            this.goals = goals;
+        }
+
+        /**
+         * Forks a task per valid successor near the top of the tree, or
+         * searches the subtree itself once it is deep enough.
+         * @return A solution config, or Optional.empty() if none was found
+         */
+        @Override
+        protected Optional<Configuration> compute() {
+            if (this.goals.enough() || isKnownDead(this.config)) {
+                return Optional.empty();
+            }
+            // a task runs start to finish on one worker, so it can hold on
+            // to that worker's counters
+            SearchStats stats = this.goals.stats();
+            if (this.depth >= splitDepth) {
+                return search(this.config, this.depth, stats);
+            }
+            if (isGoal(this.config, stats)) {
+                this.goals.report(this.config);
+                return Optional.of(this.config);
+            }
+            if (stats != null) {
+                stats.expanded(this.depth);
+            }
+            List<SolveTask> tasks = new ArrayList<>();
+            for (Configuration child : this.config.getSuccessors()) {
+                if (stats != null) {
+                    stats.generated();
+                }
+                if (isValid(child, stats)) {
+                    tasks.add(new SolveTask(child, this.depth + 1, this.goals));
+                }
+            }
+            if (tasks.isEmpty()) {
+                return Optional.empty();
+            }
+            // fork the later siblings in reverse so this worker pops them in
+            // the same order the sequential search would visit them, and
+            // search the first one directly
+            for (int i = tasks.size() - 1; i > 0; i--) {
+                tasks.get(i).fork();
+            }
+            Optional<Configuration> sol = tasks.get(0).compute();
+            for (int i = 1; i < tasks.size(); i++) {
+                Optional<Configuration> result = tasks.get(i).join();
+                if (sol.isEmpty()) {
+                    sol = result;
+                }
+            }
+            if (sol.isEmpty()) {
+                markDead(this.config, this.goals);
+            }
+            return sol;
+        }
+
+        /**
+         * The sequential backtracking search, giving up as soon as enough
+         * goals have been found by any task.
+         * @param config A valid configuration
+         * @param depth its depth in the whole search tree
+         * @param stats this worker's counters, or null if not counting
+         * @return the first goal found in the subtree, or Optional.empty()
+         */
+        private Optional<Configuration> search(Configuration config, int depth, SearchStats stats) {
+            if (this.goals.enough() || isKnownDead(config)) {
+                return Optional.empty();
+            }
+            if (isGoal(config, stats)) {
+                this.goals.report(config);
+                return Optional.of(config);
+            }
+            if (stats != null) {
+                stats.expanded(depth);
+            }
+            Optional<Configuration> first = Optional.empty();
+            Iterator<Configuration> successors = config.successors();
+            while (successors.hasNext()) {
+                Configuration child = successors.next();
+                if (stats != null) {
+                    stats.generated();
+                }
+                if (isValid(child, stats)) {
+                    Optional<Configuration> sol = search(child, depth + 1, stats);
+                    if (first.isEmpty()) {
+                        first = sol;
+                    }
+                    if (this.goals.enough()) {
+                        return first;
+                    }
+                }
+            }
+            if (first.isEmpty()) {
+                markDead(config, this.goals);
+            }
+            return first;
+        }
+
+        /**
+         * Checks a configuration is valid, counting it if statistics are on
+         * @param config the configuration
+         * @param stats this worker's counters, or null
+         * @return true if valid; false otherwise
+         */
+        private boolean isValid(Configuration config, SearchStats stats) {
+            return stats == null ? config.isValid() : stats.isValid(config);
+        }
+
+        /**
+         * Checks whether a configuration is a goal, timing it if statistics are on
+         * @param config the configuration
+         * @param stats this worker's counters, or null
+         * @return true if goal; false otherwise
+         */
+        private boolean isGoal(Configuration config, SearchStats stats) {
+            return stats == null ? config.isGoal() : stats.isGoal(config);
+        }
+    }
+}
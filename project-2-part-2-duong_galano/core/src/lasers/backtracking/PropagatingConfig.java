@@ -0,0 +1,583 @@
+package lasers.backtracking;
+
+import lasers.model.SafeFile;
+
+import java.io.FileNotFoundException;
+import java.util.*;
+
+/**
+ * A safe configuration that, after every decision, propagates what the
+ * clues force before anything else is branched on.  Each empty cell is
+ * explicitly undecided, a laser, or blocked (can never hold a laser),
+ * and propagation runs the following rules until nothing changes:
+ * <ul>
+ *     <li>an undecided cell that is lit is blocked, since a laser there
+ *     would see the laser lighting it</li>
+ *     <li>a pillar with as many lasers as its number blocks its other
+ *     neighbours, and a pillar whose undecided neighbours are exactly
+ *     what it still needs forces them all to be lasers (so a 4 forces all
+ *     its neighbours and a 0 blocks all of them)</li>
+ *     <li>a dark cell with a single undecided cell left in its row and
+ *     column segments forces a laser there</li>
+ * </ul>
+ * A configuration in which a pillar is overfull or starved, or a dark
+ * cell has nothing left that could light it, is dead and is pruned as
+ * invalid straight away.
+ *
+ * Branching either takes the first undecided cell in row-major order,
+ * or, in most-constrained mode, the undecided cell with the fewest
+ * alternatives: a candidate of the dark cell with the fewest cells left
+ * that could light it, or a neighbour of the pillar with the least slack
+ * between its undecided neighbours and the lasers it still needs.  Since
+ * validity only ever looks at the explicit state of each cell, the order
+ * cells are decided in does not matter to the pruning.
+ *
+ * The hash key is a Zobrist hash of the lasers and blocked cells, kept up
+ * to date as cells are decided, so different decision orders that reach
+ * the same board get the same key.  It starts from a hash of the size of
+ * the board and its walls and pillars, so the same decisions on two
+ * different safes get different keys, and a transposition table can be
+ * shared between safes.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+public class PropagatingConfig implements HashedConfiguration, DiagnosedConfiguration {
+    /** an empty cell that is not decided yet */
+    private static final byte UNDECIDED = 0;
+    /** an empty cell holding a laser */
+    private static final byte LASER = 1;
+    /** an empty cell that can never hold a laser */
+    private static final byte BLOCKED = 2;
+    /** a pillar or an X */
+    private static final byte WALL = 3;
+
+    /** number of rows of the board */
+    private final int row;
+    /** number of columns of the board */
+    private final int col;
+    /** symbol of each cell as read from the file, in row-major order */
+    private final char[] cells;
+    /** first column of the row segment holding each cell */
+    private final int[] left;
+    /** last column of the row segment holding each cell */
+    private final int[] right;
+    /** first row of the column segment holding each cell */
+    private final int[] top;
+    /** last row of the column segment holding each cell */
+    private final int[] bottom;
+
+    /** decision state of each cell */
+    private byte[] state;
+    /** number of lasers lighting each cell */
+    private int[] lit;
+    /** every cell before this row-major index is decided */
+    private int next;
+    /** whether propagation proved this configuration cannot be solved */
+    private boolean dead;
+    /** the rule propagation found broken when it proved this configuration dead */
+    private PruneReason pruneReason;
+    /** whether to branch on the most constrained cell instead of the next one */
+    private final boolean mostConstrained;
+    /** random Zobrist codes, two per cell: laser then blocked */
+    private final long[] zobrist;
+    /** Zobrist hash of the decided cells */
+    private long hash;
+
+    /** cells waiting to be re-examined by propagation */
+    private int[] queue;
+    /** number of cells in the queue */
+    private int queueSize;
+    /** whether each cell is already in the queue */
+    private boolean[] queued;
+
+    /**
+     * Creates a propagating configuration based off the filename and runs
+     * propagation once over the whole board before any branching
+     * @param filename String for the name of the file
+     * @throws FileNotFoundException if the file does not exist
+     */
+    public PropagatingConfig(String filename) throws FileNotFoundException {
+        this(filename, false);
+    }
+
+    /**
+     * Creates a propagating configuration based off the filename and runs
+     * propagation once over the whole board before any branching
+     * @param filename String for the name of the file
+     * @param mostConstrained boolean whether to branch on the most constrained cell
+     * @throws FileNotFoundException if the file does not exist
+     */
+    public PropagatingConfig(String filename, boolean mostConstrained) throws FileNotFoundException {
+        this(SafeFile.read(filename), mostConstrained);
+    }
+
+    /**
+     * Creates a propagating configuration from an already read safe and
+     * runs propagation once over the whole board before any branching
+     * @param safe SafeFile holding the cells
+     * @param mostConstrained boolean whether to branch on the most constrained cell
+     */
+    public PropagatingConfig(SafeFile safe, boolean mostConstrained) {
+        this.mostConstrained = mostConstrained;
+        this.row = safe.getRow();
+        this.col = safe.getCol();
+        int n = this.row * this.col;
+        this.cells = new char[n];
+        this.state = new byte[n];
+        for (int k = 0; k < n; k++) {
+            char t = safe.getCell(k);
+            this.cells[k] = t;
+            this.state[k] = t == '.' ? UNDECIDED : WALL;
+        }
+        this.left = new int[n];
+        this.right = new int[n];
+        this.top = new int[n];
+        this.bottom = new int[n];
+        for (int k = 0; k < n; k++) {
+            int j = k % this.col;
+            this.left[k] = j > 0 && isEmpty(k - 1) ? this.left[k - 1] : j;
+            this.top[k] = k >= this.col && isEmpty(k - this.col) ? this.top[k - this.col] : k / this.col;
+        }
+        for (int k = n - 1; k >= 0; k--) {
+            int j = k % this.col;
+            this.right[k] = j < this.col - 1 && isEmpty(k + 1) ? this.right[k + 1] : j;
+            this.bottom[k] = k + this.col < n && isEmpty(k + this.col) ? this.bottom[k + this.col] : k / this.col;
+        }
+        this.zobrist = new long[2 * n];
+        Random random = new Random(n);
+        for (int k = 0; k < this.zobrist.length; k++) {
+            this.zobrist[k] = random.nextLong();
+        }
+        this.hash = layoutHash();
+        this.lit = new int[n];
+        this.next = 0;
+        this.dead = false;
+        for (int k = 0; k < n; k++) {
+            enqueue(k);
+        }
+        propagate();
+    }
+
+    /**
+     * Creates a configuration that decides one more cell of another one
+     * and propagates the consequences
+     * @param other PropagatingConfig representing the other configuration
+     * @param k row-major index of the cell being decided
+     * @param add boolean whether or not a laser should be added
+     */
+    private PropagatingConfig(PropagatingConfig other, int k, boolean add) {
+        this.row = other.row;
+        this.col = other.col;
+        this.cells = other.cells;
+        this.left = other.left;
+        this.right = other.right;
+        this.top = other.top;
+        this.bottom = other.bottom;
+        this.state = other.state.clone();
+        this.lit = other.lit.clone();
+        this.next = other.next;
+        this.dead = false;
+        this.mostConstrained = other.mostConstrained;
+        this.zobrist = other.zobrist;
+        this.hash = other.hash;
+        if (add) {
+            placeLaser(k);
+        } else {
+            block(k);
+        }
+        propagate();
+    }
+
+    /**
+     * Is a cell free of walls and pillars?
+     * @param k row-major index of the cell
+     * @return true if the cell is empty
+     */
+    private boolean isEmpty(int k) {
+        return this.cells[k] == '.';
+    }
+
+    /**
+     * Is a cell a numbered pillar?
+     * @param k row-major index of the cell
+     * @return true if the cell is a pillar with a number on it
+     */
+    private boolean isPillar(int k) {
+        return this.cells[k] >= '0' && this.cells[k] <= '4';
+    }
+
+    /**
+     * Adds a cell to the propagation queue unless it is already waiting
+     * @param k row-major index of the cell
+     */
+    private void enqueue(int k) {
+        if (this.queue == null) {
+            this.queue = new int[this.cells.length];
+            this.queued = new boolean[this.cells.length];
+        }
+        if (!this.queued[k]) {
+            this.queued[k] = true;
+            this.queue[this.queueSize++] = k;
+        }
+    }
+
+    /**
+     * Queues everything a change to a cell's state can affect: the
+     * pillars around it and the cells sharing its row and column segments
+     * @param k row-major index of the cell that changed
+     */
+    private void touch(int k) {
+        int r = k / this.col;
+        int c = k % this.col;
+        if (r > 0) { enqueue(k - this.col); }
+        if (r < this.row - 1) { enqueue(k + this.col); }
+        if (c > 0) { enqueue(k - 1); }
+        if (c < this.col - 1) { enqueue(k + 1); }
+        for (int j = this.left[k]; j <= this.right[k]; j++) {
+            enqueue(r * this.col + j);
+        }
+        for (int i = this.top[k]; i <= this.bottom[k]; i++) {
+            enqueue(i * this.col + c);
+        }
+    }
+
+    /**
+     * Places a laser and lights its segments, blocking every undecided
+     * cell it lights
+     * @param k row-major index of the cell
+     */
+    private void placeLaser(int k) {
+        if (this.lit[k] > 0) {
+            // the new laser would see the one lighting this cell
+            this.dead = true;
+            this.pruneReason = PruneReason.LASER_SEES_LASER;
+            return;
+        }
+        this.state[k] = LASER;
+        this.hash ^= this.zobrist[2 * k];
+        int r = k / this.col;
+        int c = k % this.col;
+        for (int j = this.left[k]; j <= this.right[k]; j++) {
+            light(r * this.col + j);
+        }
+        for (int i = this.top[k]; i <= this.bottom[k]; i++) {
+            if (i != r) {
+                light(i * this.col + c);
+            }
+        }
+        touch(k);
+    }
+
+    /**
+     * Lights a cell with one more laser
+     * @param k row-major index of the cell
+     */
+    private void light(int k) {
+        this.lit[k]++;
+        if (this.state[k] == UNDECIDED) {
+            block(k);
+        }
+    }
+
+    /**
+     * Marks a cell as never holding a laser
+     * @param k row-major index of the cell
+     */
+    private void block(int k) {
+        this.state[k] = BLOCKED;
+        this.hash ^= this.zobrist[2 * k + 1];
+        touch(k);
+    }
+
+    /**
+     * Applies the pillar and dark cell rules to queued cells until
+     * nothing changes or the configuration is proven dead
+     */
+    private void propagate() {
+        while (this.queueSize > 0 && !this.dead) {
+            int k = this.queue[--this.queueSize];
+            this.queued[k] = false;
+            if (isPillar(k)) {
+                propagatePillar(k);
+            } else if (isEmpty(k) && this.state[k] != LASER && this.lit[k] == 0) {
+                propagateDark(k);
+            }
+        }
+        // the scratch queue is only needed while propagating
+        this.queue = null;
+        this.queued = null;
+        this.queueSize = 0;
+        while (this.next < this.state.length && this.state[this.next] != UNDECIDED) {
+            this.next++;
+        }
+    }
+
+    /**
+     * Forces or blocks the neighbours of a pillar once its number allows
+     * only one choice for them
+     * @param p row-major index of the pillar
+     */
+    private void propagatePillar(int p) {
+        int need = this.cells[p] - '0';
+        int[] around = neighbours(p);
+        int lasers = 0;
+        int open = 0;
+        for (int k : around) {
+            if (k >= 0) {
+                if (this.state[k] == LASER) {
+                    lasers++;
+                } else if (this.state[k] == UNDECIDED) {
+                    open++;
+                }
+            }
+        }
+        if (lasers > need) {
+            this.dead = true;
+            this.pruneReason = PruneReason.PILLAR_OVERFULL;
+        } else if (lasers + open < need) {
+            this.dead = true;
+            this.pruneReason = PruneReason.PILLAR_STARVED;
+        } else if (open > 0 && lasers == need) {
+            for (int k : around) {
+                if (k >= 0 && this.state[k] == UNDECIDED) {
+                    block(k);
+                }
+            }
+        } else if (open > 0 && lasers + open == need) {
+            for (int k : around) {
+                if (k >= 0 && this.state[k] == UNDECIDED && !this.dead) {
+                    placeLaser(k);
+                }
+            }
+        }
+    }
+
+    /**
+     * Forces a laser onto the only cell left that could light a dark
+     * cell, or proves the configuration dead if there is none
+     * @param d row-major index of the dark cell
+     */
+    private void propagateDark(int d) {
+        int r = d / this.col;
+        int c = d % this.col;
+        int only = -1;
+        int count = 0;
+        for (int j = this.left[d]; j <= this.right[d] && count < 2; j++) {
+            if (this.state[r * this.col + j] == UNDECIDED) {
+                only = r * this.col + j;
+                count++;
+            }
+        }
+        for (int i = this.top[d]; i <= this.bottom[d] && count < 2; i++) {
+            if (i != r && this.state[i * this.col + c] == UNDECIDED) {
+                only = i * this.col + c;
+                count++;
+            }
+        }
+        if (count == 0) {
+            this.dead = true;
+            this.pruneReason = PruneReason.UNLIT_UNREACHABLE;
+        } else if (count == 1) {
+            placeLaser(only);
+        }
+    }
+
+    /**
+     * The four orthogonal neighbours of a cell
+     * @param k row-major index of the cell
+     * @return their indices, with -1 for those off the board
+     */
+    private int[] neighbours(int k) {
+        int r = k / this.col;
+        int c = k % this.col;
+        return new int[] {
+                r > 0 ? k - this.col : -1,
+                r < this.row - 1 ? k + this.col : -1,
+                c > 0 ? k - 1 : -1,
+                c < this.col - 1 ? k + 1 : -1
+        };
+    }
+
+    /**
+     * Creates the two configurations that decide the first undecided cell
+     * @return a Collection of all the successors
+     */
+    @Override
+    public Collection<Configuration> getSuccessors() {
+        List<Configuration> successors = new LinkedList<>();
+        successors().forEachRemaining(successors::add);
+        return successors;
+    }
+
+    /**
+     * Lazily creates the two configurations that decide the first
+     * undecided cell, the one with a laser first.  Each runs propagation
+     * as it is made, so the second is only made if the search comes back.
+     * @return an Iterator over the successors
+     */
+    @Override
+    public Iterator<Configuration> successors() {
+        if (this.dead || this.next >= this.state.length) {
+            return Collections.emptyIterator();
+        }
+        int k = this.mostConstrained ? mostConstrainedCell() : this.next;
+        return new SuccessorIterator(2, i -> new PropagatingConfig(this, k, i == 0));
+    }
+
+    /**
+     * Finds the undecided cell whose decision has the fewest alternatives.
+     * Propagation has already forced every dark cell with one candidate
+     * and every pillar with no slack, so the best scores left are two
+     * candidates or a slack of one.
+     * @return row-major index of the cell to branch on
+     */
+    private int mostConstrainedCell() {
+        int best = this.next;
+        int bestScore = Integer.MAX_VALUE;
+        for (int k = 0; k < this.cells.length; k++) {
+            if (isPillar(k)) {
+                int lasers = 0;
+                int open = 0;
+                int first = -1;
+                for (int m : neighbours(k)) {
+                    if (m >= 0 && this.state[m] == LASER) {
+                        lasers++;
+                    } else if (m >= 0 && this.state[m] == UNDECIDED) {
+                        open++;
+                        first = first < 0 ? m : first;
+                    }
+                }
+                int score = open - (this.cells[k] - '0' - lasers) + 1;
+                if (open > 0 && score < bestScore) {
+                    best = first;
+                    bestScore = score;
+                }
+            } else if (isEmpty(k) && this.state[k] != LASER && this.lit[k] == 0) {
+                int r = k / this.col;
+                int c = k % this.col;
+                int first = -1;
+                int count = 0;
+                for (int j = this.left[k]; j <= this.right[k]; j++) {
+                    if (this.state[r * this.col + j] == UNDECIDED) {
+                        first = first < 0 ? r * this.col + j : first;
+                        count++;
+                    }
+                }
+                for (int i = this.top[k]; i <= this.bottom[k]; i++) {
+                    if (i != r && this.state[i * this.col + c] == UNDECIDED) {
+                        first = first < 0 ? i * this.col + c : first;
+                        count++;
+                    }
+                }
+                if (count > 0 && count < bestScore) {
+                    best = first;
+                    bestScore = count;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Hashes the size of the board and the symbol of every cell of the
+     * safe, with FNV-1a followed by the SplitMix64 finalizer
+     * @return the 64-bit hash of the safe
+     */
+    private long layoutHash() {
+        long h = 0xcbf29ce484222325L;
+        h = (h ^ this.row) * 0x100000001b3L;
+        h = (h ^ this.col) * 0x100000001b3L;
+        for (char t : this.cells) {
+            h = (h ^ t) * 0x100000001b3L;
+        }
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+
+    /**
+     * Gets the Zobrist hash of the lasers and blocked cells, on top of
+     * the hash of the safe
+     * @return the 64-bit hash of this configuration
+     */
+    @Override
+    public long hashKey() {
+        return this.hash;
+    }
+
+    /**
+     * Called by the backtracker to check whether or not a certain configuration is valid
+     * @return true if propagation did not prove the configuration dead
+     */
+    @Override
+    public boolean isValid() {
+        return !this.dead;
+    }
+
+    /**
+     * Gets the rule propagation found broken when it proved this
+     * configuration dead
+     * @return the rule, or null if the configuration is not dead
+     */
+    @Override
+    public PruneReason getPruneReason() {
+        return this.pruneReason;
+    }
+
+    /**
+     * Checks to see if the configuration is a valid solution
+     * @return true if the configuration is the solution
+     */
+    @Override
+    public boolean isGoal() {
+        if (this.dead) {
+            return false;
+        }
+        for (int k = 0; k < this.cells.length; k++) {
+            if (isEmpty(k) && this.lit[k] == 0) {
+                return false;
+            }
+            if (isPillar(k)) {
+                int lasers = 0;
+                for (int m : neighbours(k)) {
+                    if (m >= 0 && this.state[m] == LASER) {
+                        lasers++;
+                    }
+                }
+                if (lasers != this.cells[k] - '0') {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Works out the symbol of each cell from its state
+     * @return the snapshot
+     */
+    @Override
+    public BoardSnapshot snapshot() {
+        char[] cells = new char[this.row * this.col];
+        for (int k = 0; k < cells.length; k++) {
+            if (this.state[k] == LASER) {
+                cells[k] = 'L';
+            } else if (isEmpty(k) && this.lit[k] > 0) {
+                cells[k] = '*';
+            } else {
+                cells[k] = this.cells[k];
+            }
+        }
+        return new BoardSnapshot(this.row, this.col, cells);
+    }
+
+    /**
+     * Represents the game board in the same manner as SafeConfig
+     * @return the board string
+     */
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+}
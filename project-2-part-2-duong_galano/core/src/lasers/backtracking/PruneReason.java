@@ -0,0 +1,18 @@
+package lasers.backtracking;
+
+/**
+ * The rule of the safe a configuration broke when it was found invalid.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+public enum PruneReason {
+    /** a laser is in the row or column segment of another laser */
+    LASER_SEES_LASER,
+    /** a numbered pillar has more lasers around it than its number */
+    PILLAR_OVERFULL,
+    /** a numbered pillar has too few places left around it for lasers */
+    PILLAR_STARVED,
+    /** an unlit cell has no cell left that a laser could light it from */
+    UNLIT_UNREACHABLE
+}
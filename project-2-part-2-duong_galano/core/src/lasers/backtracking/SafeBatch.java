@@ -0,0 +1,254 @@
+package lasers.backtracking;
+
+import lasers.model.SafeCorpus;
+import lasers.model.SafeFile;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This is the main class for solving a whole directory of safes, or every
+ * safe in a SafeCorpus, in one JVM.  The safes are solved concurrently on
+ * a fixed number of threads, each under its own time limit, and one JSON
+ * line per safe is written as soon as it is done:
+ * <pre>
+ * {"file":"tests/4x4safe.txt","status":"SOLVED","solution":["* L * 0",...],"nodes":5,"ms":1}
+ * </pre>
+ * The status is one of SolveResult's, or ERROR (with an "error" field)
+ * for a file that is not a safe or whose solve failed.  Safes from a corpus are named by the
+ * corpus file and their index, as in "corpus.safes#12".  The solution is null unless solved.
+ * Throughput over the whole batch is printed at the end, to standard
+ * error when the lines go to standard output.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+public class SafeBatch {
+    /** status reported for a file that could not be read as a safe */
+    private static final String ERROR = "ERROR";
+    /** most solves queued per thread, so a large corpus is not queued all at once */
+    private static final int QUEUED_PER_THREAD = 4;
+
+    public static void main(String[] args) throws FileNotFoundException, InterruptedException {
+        if (args.length < 1 || args.length > 5) {
+            System.out.println("Usage: java SafeBatch safe-dir-or-glob-or-corpus [threads] [seconds] " +
+                    "[string|incremental|bitboard|propagate|constrained] [out.jsonl]");
+            return;
+        }
+        SafeCorpus corpus = null;
+        List<File> files = null;
+        if (new File(args[0]).isFile() && SafeCorpus.isCorpus(args[0])) {
+            corpus = SafeCorpus.open(args[0]);
+        } else {
+            files = listFiles(args[0]);
+        }
+        int total = corpus != null ? corpus.size() : files.size();
+        int threads = args.length >= 2 ?
+                Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long timeLimit = args.length >= 3 ? (long) (Double.parseDouble(args[2]) * 1000) : 0;
+        SolverMode mode = args.length >= 4 ?
+                SolverMode.valueOf(args[3].toUpperCase()) : SolverMode.PROPAGATE;
+        PrintStream out = args.length == 5 ? new PrintStream(args[4]) : System.out;
+        PrintStream summary = out == System.out ? System.err : System.out;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CompletionService<Outcome> done = new ExecutorCompletionService<>(pool);
+        Map<SolveResult.Status, Integer> counts = new EnumMap<>(SolveResult.Status.class);
+        int errors = 0;
+        double start = System.currentTimeMillis();
+        int submitted = 0;
+        // the name and submission time of each queued solve, to report one that fails
+        Map<Future<Outcome>, String> names = new HashMap<>();
+        Map<Future<Outcome>, Long> queued = new HashMap<>();
+        try {
+            // write the lines in the order the solves finish, queueing the
+            // next safe as each one is taken
+            for (int i = 0; i < total; i++) {
+                for (; submitted < total && submitted - i < threads * QUEUED_PER_THREAD; submitted++) {
+                    String name;
+                    Future<Outcome> future;
+                    if (corpus != null) {
+                        SafeCorpus source = corpus;
+                        int index = submitted;
+                        name = args[0] + "#" + index;
+                        future = done.submit(() -> solve(name, () -> source.get(index), mode, timeLimit));
+                    } else {
+                        name = files.get(submitted).getPath();
+                        future = done.submit(() -> solve(name, () -> SafeFile.read(name), mode, timeLimit));
+                    }
+                    names.put(future, name);
+                    queued.put(future, System.currentTimeMillis());
+                }
+                Future<Outcome> future = done.take();
+                String name = names.remove(future);
+                long since = queued.remove(future);
+                Outcome outcome;
+                try {
+                    outcome = future.get();
+                } catch (ExecutionException e) {
+                    // solve catches every exception, but not an error such as running out of memory
+                    outcome = new Outcome(null, errorLine(name, e.getCause(), System.currentTimeMillis() - since));
+                }
+                out.println(outcome.line);
+                out.flush();
+                if (outcome.status == null) {
+                    errors++;
+                } else {
+                    counts.merge(outcome.status, 1, Integer::sum);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        double seconds = (System.currentTimeMillis() - start) / 1000.0;
+        if (out != System.out) {
+            out.close();
+        }
+
+        summary.println(total + " safe(s) in " + seconds + " seconds on " + threads +
+                " thread(s): " + String.format("%.2f", total / Math.max(seconds, 0.001)) +
+                " safes/second");
+        for (SolveResult.Status status : SolveResult.Status.values()) {
+            summary.println("  " + status + ": " + counts.getOrDefault(status, 0));
+        }
+        summary.println("  " + ERROR + ": " + errors);
+    }
+
+    /**
+     * Lists the files to solve: every file in a directory, or the files
+     * whose names match a glob such as tests/*safe*.txt
+     * @param target String for the directory or glob
+     * @return the files, sorted by name
+     * @throws FileNotFoundException if there is no such directory
+     */
+    static List<File> listFiles(String target) throws FileNotFoundException {
+        File dir = new File(target);
+        File[] files;
+        if (dir.isDirectory()) {
+            files = dir.listFiles(File::isFile);
+        } else {
+            // only the file name part of the glob may hold wildcards
+            Path glob = Paths.get(target);
+            dir = glob.getParent() == null ? new File(".") : glob.getParent().toFile();
+            PathMatcher matcher = FileSystems.getDefault()
+                    .getPathMatcher("glob:" + glob.getFileName());
+            files = dir.listFiles(file -> file.isFile() && matcher.matches(file.toPath().getFileName()));
+        }
+        if (files == null) {
+            throw new FileNotFoundException(dir + " is not a directory");
+        }
+        Arrays.sort(files);
+        return new ArrayList<>(Arrays.asList(files));
+    }
+
+    /**
+     * Solves one safe within the time limit
+     * @param name the name of the safe in the JSON line
+     * @param safe reads the safe
+     * @param mode the board representation to solve with
+     * @param timeLimit milliseconds the solve may take, 0 for no limit
+     * @return how the solve ended, with the JSON line for the safe
+     */
+    private static Outcome solve(String name, Callable<SafeFile> safe, SolverMode mode, long timeLimit) {
+        long start = System.currentTimeMillis();
+        SolveResult result;
+        try {
+            SolveRequest request = new SolveRequest(mode.initial(safe.call()));
+            if (timeLimit > 0) {
+                request.setTimeLimit(timeLimit);
+            }
+            result = new IterativeBacktracker(false).solve(request);
+        } catch (Exception e) {
+            return new Outcome(null, errorLine(name, e, System.currentTimeMillis() - start));
+        }
+        StringBuilder line = new StringBuilder();
+        line.append("{\"file\":").append(quote(name));
+        line.append(",\"status\":\"").append(result.getStatus()).append('"');
+        line.append(",\"solution\":");
+        if (result.getSolution().isPresent()) {
+            line.append('[');
+            String sep = "";
+            for (String row : result.getSolution().get().toString().split("\n")) {
+                if (!row.isBlank()) {
+                    line.append(sep).append(quote(row.strip()));
+                    sep = ",";
+                }
+            }
+            line.append(']');
+        } else {
+            line.append("null");
+        }
+        line.append(",\"nodes\":").append(result.getNodes());
+        line.append(",\"ms\":").append(System.currentTimeMillis() - start);
+        return new Outcome(result.getStatus(), line.append('}').toString());
+    }
+
+    /**
+     * Writes the JSON line for a safe that could not be solved at all
+     * @param name the name of the safe
+     * @param error what went wrong
+     * @param ms milliseconds spent on the safe
+     * @return the JSON line
+     */
+    private static String errorLine(String name, Throwable error, long ms) {
+        return "{\"file\":" + quote(name) + ",\"status\":\"" + ERROR + "\",\"error\":" +
+                quote(String.valueOf(error)) + ",\"solution\":null,\"nodes\":0,\"ms\":" + ms + "}";
+    }
+
+    /**
+     * Writes a string as a JSON string literal
+     * @param s the string
+     * @return the quoted and escaped string
+     */
+    private static String quote(String s) {
+        StringBuilder result = new StringBuilder("\"");
+        for (char ch : s.toCharArray()) {
+            if (ch == '"' || ch == '\\') {
+                result.append('\\').append(ch);
+            } else if (ch < ' ') {
+                result.append(String.format("\\u%04x", (int) ch));
+            } else {
+                result.append(ch);
+            }
+        }
+        return result.append('"').toString();
+    }
+
+    /**
+     * How the solve of one safe ended, along with its JSON line.
+     */
+    private static class Outcome {
+        /** how the solve ended, or null if the file was not a safe */
+        private final SolveResult.Status status;
+        /** the JSON line for the safe */
+        private final String line;
+
+        /**
+         * Creates the outcome
+         * @param status how the solve ended, or null if the file was not a safe
+         * @param line the JSON line for the safe
+         */
+        Outcome(SolveResult.Status status, String line) {
+            this.status = status;
+            this.line = line;
+        }
+    }
+}
@@ -1,9 +1,8 @@
 package lasers.backtracking;
 
-import lasers.model.LasersModel;
 import lasers.model.ModelData;
+import lasers.model.SafeFile;
 
-import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.*;
 
@@ -21,7 +20,7 @@ import java.util.*;
  * @author Quynh Duong
  *
  */
-public class SafeConfig implements Configuration {
+public class SafeConfig implements DiagnosedConfiguration {
     /** number of rows of the board */
     private int row;
     /** number of columns of the board */
@@ -32,6 +31,15 @@ public class SafeConfig implements Configuration {
     private int cursorRow;
     /** current column location of the cursor */
     private int cursorCol;
+    /** whether isValid only re-checks the cells the last decision affects */
+    private boolean incremental;
+    /**
+     * for each row-major cursor position, the empty cells whose last chance
+     * of being lit passes once the cursor reaches it (only in incremental mode)
+     */
+    private int[][] due;
+    /** the rule broken when isValid last returned false */
+    private PruneReason pruneReason;
 
     /**
      * Creates a safe configuration based off the filename
@@ -40,27 +48,83 @@ public class SafeConfig implements Configuration {
      * @throws FileNotFoundException if the file does not exist
      */
     public SafeConfig(String filename) throws FileNotFoundException {
-        Scanner scanner = new Scanner(new File(filename));
-        int i = -1;
-        while(scanner.hasNextLine()) {
-            String l = scanner.nextLine();
-            if(l.equals("")){
-                break;
-            }
-            String[] line = l.split(" ");
-            if (i == -1){
-                this.row = Integer.parseInt(line[0]);
-                this.col = Integer.parseInt(line[1]);
-                this.board = new ModelData[this.row][this.col];
-            } else {
-                for (int j = 0; j < col; j++) {
-                    this.board[i][j] = new ModelData(i, j, line[j], ModelData.Commands.INITIALIZE);
-                }
+        this(filename, false);
+    }
+
+    /**
+     * Creates a safe configuration based off the filename
+     * and creating initialized tiles at each coordinate
+     * @param filename String for the name of the file
+     * @param incremental boolean whether successors are validated incrementally
+     * @throws FileNotFoundException if the file does not exist
+     */
+    public SafeConfig(String filename, boolean incremental) throws FileNotFoundException {
+        this(SafeFile.read(filename), incremental);
+    }
+
+    /**
+     * Creates a safe configuration from an already read safe
+     * and creating initialized tiles at each coordinate
+     * @param safe SafeFile holding the cells
+     * @param incremental boolean whether successors are validated incrementally
+     */
+    public SafeConfig(SafeFile safe, boolean incremental) {
+        this.row = safe.getRow();
+        this.col = safe.getCol();
+        this.board = new ModelData[this.row][this.col];
+        for (int i = 0; i < this.row; i++) {
+            for (int j = 0; j < this.col; j++) {
+                this.board[i][j] = new ModelData(i, j, safe.getSymbol(i, j), ModelData.Commands.INITIALIZE);
             }
-            i++;
         }
         this.cursorRow = 0;
         this.cursorCol = -1;
+        this.incremental = incremental;
+        if (incremental) {
+            this.due = computeDue();
+        }
+    }
+
+    /**
+     * Works out, for every empty cell, the last cursor position that could
+     * still light it: the later of the end of its row segment and the
+     * bottom of its column segment.  Once the cursor has reached that
+     * position, the cell is either lit or can never be.
+     * @return the cells grouped by row-major deadline
+     */
+    private int[][] computeDue() {
+        int[] counts = new int[this.row * this.col];
+        int[] deadline = new int[this.row * this.col];
+        for (int i = 0; i < this.row; i++) {
+            for (int j = 0; j < this.col; j++) {
+                if (this.board[i][j].getVal().equals(".")) {
+                    int right = j;
+                    while (right + 1 < this.col && this.board[i][right + 1].getVal().equals(".")) {
+                        right++;
+                    }
+                    int down = i;
+                    while (down + 1 < this.row && this.board[down + 1][j].getVal().equals(".")) {
+                        down++;
+                    }
+                    int d = Math.max(i * this.col + right, down * this.col + j);
+                    deadline[i * this.col + j] = d;
+                    counts[d]++;
+                } else {
+                    deadline[i * this.col + j] = -1;
+                }
+            }
+        }
+        int[][] result = new int[this.row * this.col][];
+        for (int k = 0; k < result.length; k++) {
+            result[k] = new int[counts[k]];
+            counts[k] = 0;
+        }
+        for (int k = 0; k < deadline.length; k++) {
+            if (deadline[k] >= 0) {
+                result[deadline[k]][counts[deadline[k]]++] = k;
+            }
+        }
+        return result;
     }
 
     /**
@@ -75,6 +139,8 @@ public class SafeConfig implements Configuration {
         this.col = other.col;
         this.cursorRow = row;
         this.cursorCol = col;
+        this.incremental = other.incremental;
+        this.due = other.due;
         this.board = new ModelData[other.row][other.col];
         for(int i = 0; i < this.row; i++) {
             System.arraycopy(other.board[i], 0, this.board[i], 0, this.col);
@@ -93,21 +159,31 @@ public class SafeConfig implements Configuration {
     @Override
     public Collection<Configuration> getSuccessors() {
         List<Configuration> successors = new LinkedList<>();
-        if (cursorCol >= this.col-1) {
-            cursorCol = 0;
-            cursorRow++;
-        } else {
-            cursorCol++;
-        }
-        if ((cursorCol < this.col && cursorRow < this.row)) {
-            SafeConfig childL = new SafeConfig(this, cursorRow, cursorCol, true);
-            successors.add(childL);
-            SafeConfig childN = new SafeConfig(this, cursorRow, cursorCol, false);
-            successors.add(childN);
-        }
+        successors().forEachRemaining(successors::add);
         return successors;
     }
 
+    /**
+     * Lazily creates the configurations for the next coordinate, the one
+     * with a laser first.  Each is a copy of the board, so the second one
+     * is only made if the search comes back for it.
+     * @return an Iterator over the successors
+     */
+    @Override
+    public Iterator<Configuration> successors() {
+        int r = this.cursorCol >= this.col - 1 ? this.cursorRow + 1 : this.cursorRow;
+        int c = this.cursorCol >= this.col - 1 ? 0 : this.cursorCol + 1;
+        if (r >= this.row) {
+            return Collections.emptyIterator();
+        }
+        // a wall's laser child is a duplicate of its empty child, and
+        // would make every solution turn up more than once
+        String value = this.board[r][c].getVal();
+        boolean empty = value.equals(".") || value.equals("*");
+        return new SuccessorIterator(empty ? 2 : 1,
+                i -> new SafeConfig(this, r, c, empty && i == 0));
+    }
+
     /**
      * Command to add a laser at a specified coordinate
      * Adds beams in four cardinal directions within regulations
@@ -204,6 +280,10 @@ public class SafeConfig implements Configuration {
      */
     @Override
     public boolean isValid() {
+        // the root has no last decision to re-check, so it gets the full scan
+        if (this.incremental && this.cursorCol >= 0 && this.cursorRow < this.row) {
+            return isValidIncremental();
+        }
         for (int i = 0; i < this.row; i++) {
             for (int j = 0; j < this.col; j++) {
                 String t = this.board[i][j].getVal();
@@ -213,12 +293,14 @@ public class SafeConfig implements Configuration {
                     boolean cL = checkLeft(i, j);
                     boolean cR = checkRight(i, j);
                     if (!cU || !cD || !cL || !cR) {
+                        this.pruneReason = PruneReason.LASER_SEES_LASER;
                         return false;
                     }
                 } else if (t.equals("0") || t.equals("1") || t.equals("2") || t.equals("3") || t.equals("4")) {
                     int pillar = Integer.parseInt(t);
                     int cP = checkPillar(i, j);
                     if (cP > pillar) {
+                        this.pruneReason = PruneReason.PILLAR_OVERFULL;
                         return false;
                     }
                     else if (cP < pillar) {
@@ -249,6 +331,7 @@ public class SafeConfig implements Configuration {
                         if (i<this.row-1) { spaceCount++; }
                         int possible = spaceCount - visitCount + cP;
                         if (possible < pillar) {
+                            this.pruneReason = PruneReason.PILLAR_STARVED;
                             return false;
                         }
                     }
@@ -259,6 +342,7 @@ public class SafeConfig implements Configuration {
                     boolean vR = verifyRight(i, j);
                     boolean vL = verifyLeft(i, j);
                     if (vD && vU && vR && vL) {
+                        this.pruneReason = PruneReason.UNLIT_UNREACHABLE;
                         return false;
                     }
                 }
@@ -267,6 +351,85 @@ public class SafeConfig implements Configuration {
         return true;
     }
 
+    /**
+     * Gets the rule broken when isValid last returned false
+     * @return the rule, or null if isValid has not returned false
+     */
+    @Override
+    public PruneReason getPruneReason() {
+        return this.pruneReason;
+    }
+
+    /**
+     * Validates a successor by only looking at what deciding the cell under
+     * the cursor can change, assuming its parent was already valid: the
+     * row and column segments of a new laser, the four pillars around the
+     * cell, and the empty cells whose last chance of being lit was this cell.
+     * @return true if the configuration is valid
+     */
+    private boolean isValidIncremental() {
+        int r = this.cursorRow;
+        int c = this.cursorCol;
+        if (this.board[r][c].getVal().equals("L")) {
+            if (!(checkUp(r, c) && checkDown(r, c) && checkLeft(r, c) && checkRight(r, c))) {
+                this.pruneReason = PruneReason.LASER_SEES_LASER;
+                return false;
+            }
+        }
+        if (r > 0 && !pillarPossible(r - 1, c)) { return false; }
+        if (r < this.row - 1 && !pillarPossible(r + 1, c)) { return false; }
+        if (c > 0 && !pillarPossible(r, c - 1)) { return false; }
+        if (c < this.col - 1 && !pillarPossible(r, c + 1)) { return false; }
+        for (int k : this.due[r * this.col + c]) {
+            if (this.board[k / this.col][k % this.col].getVal().equals(".")) {
+                this.pruneReason = PruneReason.UNLIT_UNREACHABLE;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks that a cell, if it is a numbered pillar, is neither overfull
+     * nor starved of the undecided spaces it still needs, noting which
+     * @param row row of the cell
+     * @param col column of the cell
+     * @return false if the pillar can no longer be satisfied
+     */
+    private boolean pillarPossible(int row, int col) {
+        String t = this.board[row][col].getVal();
+        if (t.length() != 1 || t.charAt(0) < '0' || t.charAt(0) > '4') {
+            return true;
+        }
+        int pillar = t.charAt(0) - '0';
+        int cP = checkPillar(row, col);
+        if (cP > pillar) {
+            this.pruneReason = PruneReason.PILLAR_OVERFULL;
+            return false;
+        }
+        int open = 0;
+        if (row > 0 && isUndecided(row - 1, col)) { open++; }
+        if (row < this.row - 1 && isUndecided(row + 1, col)) { open++; }
+        if (col > 0 && isUndecided(row, col - 1)) { open++; }
+        if (col < this.col - 1 && isUndecided(row, col + 1)) { open++; }
+        if (cP + open < pillar) {
+            this.pruneReason = PruneReason.PILLAR_STARVED;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Is a cell past the cursor and still able to take a laser?
+     * @param row row of the cell
+     * @param col column of the cell
+     * @return true if a laser may still be placed there
+     */
+    private boolean isUndecided(int row, int col) {
+        boolean ahead = row > this.cursorRow || (row == this.cursorRow && col > this.cursorCol);
+        return ahead && this.board[row][col].getVal().equals(".");
+    }
+
     /**
      * Verifies that there can still be a beam at a specified point from below it
      * @param row row of the specified point
@@ -545,6 +708,21 @@ public class SafeConfig implements Configuration {
         return count;
     }
 
+    /**
+     * Copies the symbols off the board
+     * @return the snapshot
+     */
+    @Override
+    public BoardSnapshot snapshot() {
+        char[] cells = new char[this.row * this.col];
+        for (int r = 0; r < this.row; r++) {
+            for (int c = 0; c < this.col; c++) {
+                cells[r * this.col + c] = this.board[r][c].getVal().charAt(0);
+            }
+        }
+        return new BoardSnapshot(this.row, this.col, cells);
+    }
+
     /**
      * Represents the game board in an appealing manner
      * @return the board string
@@ -0,0 +1,42 @@
+package lasers.backtracking;
+
+import lasers.model.SafeCorpus;
+import lasers.model.SafeFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * This is the main class for packing text safe files into a SafeCorpus.
+ * Files that are not safes are reported and left out.  The corpus can
+ * then be solved with SafeBatch, which names each safe by its index.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+public class SafePack {
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: java SafePack safe-dir-or-glob out.safes");
+            return;
+        }
+        List<File> files = SafeBatch.listFiles(args[0]);
+        long bytes = 0;
+        int packed = 0;
+        try (SafeCorpus.Writer corpus = new SafeCorpus.Writer(args[1])) {
+            for (File file : files) {
+                try {
+                    SafeFile safe = SafeFile.read(file.getPath());
+                    System.out.println(corpus.add(safe) + " " + file.getPath());
+                    bytes += file.length();
+                    packed++;
+                } catch (IllegalArgumentException e) {
+                    System.err.println("skipped " + e.getMessage());
+                }
+            }
+        }
+        System.out.println("Packed " + packed + " of " + files.size() + " file(s), " + bytes +
+                " bytes of text into " + new File(args[1]).length() + " bytes.");
+    }
+}
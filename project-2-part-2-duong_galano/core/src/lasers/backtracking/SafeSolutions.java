@@ -0,0 +1,38 @@
+package lasers.backtracking;
+
+import java.io.FileNotFoundException;
+import java.util.stream.Stream;
+
+/**
+ * This is the main class for listing every solution of a safe.  The
+ * solutions are streamed as they are found, so they are never all held
+ * in memory at once.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+public class SafeSolutions {
+    public static void main(String[] args) throws FileNotFoundException {
+        if (args.length < 1 || args.length > 3) {
+            System.out.println("Usage: java SafeSolutions safe.in [limit] [string|incremental|bitboard|propagate|constrained]");
+        } else {
+            SolverMode mode = args.length == 3 ?
+                    SolverMode.valueOf(args[2].toUpperCase()) : SolverMode.PROPAGATE;
+            Configuration init = mode.initial(args[0]);
+            Backtracker bt = new Backtracker(false);
+
+            double start = System.currentTimeMillis();
+            Stream<Configuration> solutions = bt.solutions(init);
+            if (args.length >= 2) {
+                solutions = solutions.limit(Long.parseLong(args[1]));
+            }
+            long[] count = {0};
+            solutions.forEach(sol -> {
+                count[0]++;
+                System.out.println("Solution " + count[0] + ":" + sol);
+            });
+            System.out.println(count[0] + " solution(s) in " +
+                    (System.currentTimeMillis() - start)/1000.0 + " seconds.");
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package lasers.backtracking;
+
+import lasers.model.SafeFile;
+import lasers.sat.SafeCnf;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * This is the main class for a safe solver.  It runs the backtracking
+ * algorithm and displays the solution, if one exists.
+ *
+ * @author RIT CS
+ */
+public class SafeSolver {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 6) {
+            System.out.println("Usage: java SafeSolver safe.in debug|stats [string|incremental|bitboard|propagate|constrained|inplace|sat] [cache-MB] [seconds] [solution-dir]");
+        } else {
+            String engine = args.length >= 3 ? args[2] : "string";
+
+            // a safe that has been solved before is answered from the
+            // solution cache, if there is one, without searching
+            SafeFile safe = SafeFile.read(args[0]);
+            SolutionCache solutions = args.length == 6 ? new SolutionCache(args[5]) : null;
+            if (solutions != null) {
+                Optional<SolveResult> cached = solutions.get(safe);
+                if (cached.isPresent()) {
+                    System.out.println("Elapsed time: " + cached.get().getElapsed()/1000.0 + " seconds.");
+                    System.out.println("Solution (cached):\n" + cached.get().getSolution().get());
+                    return;
+                }
+            }
+
+            // the in-place and SAT engines take the time limit, if there is
+            // one, as a deadline
+            long deadline = args.length >= 5 ? System.currentTimeMillis() +
+                    (long) (Double.parseDouble(args[4]) * 1000) : Long.MAX_VALUE;
+
+            // the in-place search mutates a single board instead of
+            // handing configurations to the backtracker
+            if (engine.equals("inplace")) {
+                InPlaceSafe inPlace = new InPlaceSafe(safe);
+                double start = System.currentTimeMillis();
+                SolveResult.Status status = inPlace.solve(deadline);
+                System.out.println("Elapsed time: " +
+                        (System.currentTimeMillis() - start)/1000.0 + " seconds.");
+                switch (status) {
+                    case SOLVED:
+                        System.out.println("Solution:\n" + inPlace);
+                        if (solutions != null) {
+                            solutions.put(safe, inPlace.toString());
+                        }
+                        break;
+                    case UNSATISFIABLE:
+                        System.out.println("No solution!");
+                        break;
+                    default:
+                        System.out.println("Gave up after " + inPlace.getNodes() + " configurations.");
+                }
+                return;
+            }
+
+            // the SAT engine encodes the safe as CNF and hands it to the CDCL solver
+            if (engine.equals("sat")) {
+                SafeCnf cnf = new SafeCnf(safe);
+                double start = System.currentTimeMillis();
+                Optional<String> board = cnf.solve(deadline);
+                System.out.println("Elapsed time: " +
+                        (System.currentTimeMillis() - start)/1000.0 + " seconds.");
+                if (board.isPresent()) {
+                    System.out.println("Solution:\n" + board.get());
+                    if (solutions != null) {
+                        solutions.put(safe, board.get());
+                    }
+                } else {
+                    System.out.println(cnf.hasExpired() ? "Gave up at the time limit." : "No solution!");
+                }
+                return;
+            }
+
+            // construct the initial configuration from the file
+            SolverMode mode = SolverMode.valueOf(engine.toUpperCase());
+            Configuration init = mode.initial(safe);
+
+            // create the backtracker with the debug flag, remembering dead
+            // configurations in a transposition table if given its size
+            boolean debug = args[1].equals("true");
+            long cacheMB = args.length >= 4 ? Long.parseLong(args[3]) : 0;
+            TranspositionTable table = cacheMB > 0 ? new TranspositionTable(
+                    cacheMB << 20, TranspositionTable.Eviction.LRU) : null;
+            IterativeBacktracker bt = new IterativeBacktracker(debug, table);
+
+            // count what the search does if asked for statistics
+            SearchStats stats = args[1].equals("stats") ? new SearchStats() : null;
+            bt.setStatistics(stats);
+
+            // give up after the time limit, if there is one
+            SolveRequest request = new SolveRequest(init);
+            if (args.length >= 5) {
+                request.setTimeLimit((long) (Double.parseDouble(args[4]) * 1000));
+            }
+
+            // attempt to solve the puzzle
+            SolveResult result = bt.solve(request);
+            if (solutions != null) {
+                solutions.put(safe, result);
+            }
+
+            // compute the elapsed time
+            System.out.println("Elapsed time: " + result.getElapsed()/1000.0 + " seconds.");
+
+            // indicate whether there was a solution, or not
+            switch (result.getStatus()) {
+                case SOLVED:
+                    System.out.println("Solution:\n" + result.getSolution().get());
+                    break;
+                case UNSATISFIABLE:
+                    System.out.println("No solution!");
+                    break;
+                default:
+                    System.out.println("Gave up after " + result.getNodes() +
+                            " configurations.  Deepest partial board, " +
+                            result.getDepth() + " decisions in:\n" + result.getDeepest());
+            }
+            if (stats != null) {
+                System.out.print(stats);
+            }
+        }
+    }
+}
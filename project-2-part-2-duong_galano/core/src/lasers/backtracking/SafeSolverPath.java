@@ -12,15 +12,21 @@ import java.util.List;
  */
 public class SafeSolverPath {
     public static void main(String[] args) throws FileNotFoundException {
-        if (args.length != 2) {
-            System.out.println("Usage: java SafeSolverPath safe.in debug");
+        if (args.length != 2 && args.length != 3) {
+            System.out.println("Usage: java SafeSolverPath safe.in debug|stats [string|incremental|bitboard|propagate|constrained]");
         } else {
             // construct the initial configuration from the file
-            Configuration init = new SafeConfig(args[0]);
+            SolverMode mode = args.length == 3 ?
+                    SolverMode.valueOf(args[2].toUpperCase()) : SolverMode.STRING;
+            Configuration init = mode.initial(args[0]);
 
             // create the backtracker with the debug flag
             boolean debug = args[1].equals("true");
-            Backtracker bt = new Backtracker(debug);
+            IterativeBacktracker bt = new IterativeBacktracker(debug);
+
+            // count what the search does if asked for statistics
+            SearchStats stats = args[1].equals("stats") ? new SearchStats() : null;
+            bt.setStatistics(stats);
 
             // start the clock
             double start = System.currentTimeMillis();
@@ -44,6 +50,9 @@ public class SafeSolverPath {
             } else {
                 System.out.println("No solution!");
             }
+            if (stats != null) {
+                System.out.print(stats);
+            }
         }
     }
 }
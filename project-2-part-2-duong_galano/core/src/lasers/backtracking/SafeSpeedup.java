@@ -0,0 +1,65 @@
+package lasers.backtracking;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Compares the sequential backtracker against the parallel one on every
+ * safe file in a directory and prints the speed-up for each.  Files that
+ * are not safes (such as the command input files next to them) are
+ * skipped.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+public class SafeSpeedup {
+    public static void main(String[] args) throws FileNotFoundException {
+        if (args.length < 1 || args.length > 3) {
+            System.out.println("Usage: java SafeSpeedup safe-dir [threads] [string|incremental|bitboard|propagate|constrained]");
+            return;
+        }
+        int threads = args.length >= 2 ?
+                Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        SolverMode mode = args.length == 3 ?
+                SolverMode.valueOf(args[2].toUpperCase()) : SolverMode.BITBOARD;
+        File[] files = new File(args[0]).listFiles((dir, name) -> name.endsWith(".txt"));
+        if (files == null) {
+            System.out.println(args[0] + " is not a directory");
+            return;
+        }
+        Arrays.sort(files);
+
+        Backtracker sequential = new Backtracker(false);
+        ParallelBacktracker parallel = new ParallelBacktracker(threads);
+        System.out.printf("%-26s %10s %10s %8s%n", "safe", "seq (s)", "par (s)", "speedup");
+        double seqTotal = 0;
+        double parTotal = 0;
+        for (File file : files) {
+            Configuration init;
+            try {
+                init = mode.initial(file.getPath());
+            } catch (RuntimeException e) {
+                continue;
+            }
+            double start = System.currentTimeMillis();
+            Optional<Configuration> seqSol = sequential.solve(init);
+            double seq = (System.currentTimeMillis() - start) / 1000.0;
+
+            init = mode.initial(file.getPath());
+            start = System.currentTimeMillis();
+            Optional<Configuration> parSol = parallel.solve(init);
+            double par = (System.currentTimeMillis() - start) / 1000.0;
+
+            String note = seqSol.isPresent() == parSol.isPresent() ? "" : "  (results differ!)";
+            System.out.printf("%-26s %10.3f %10.3f %7.2fx%s%n",
+                    file.getName(), seq, par, seq / Math.max(par, 0.001), note);
+            seqTotal += seq;
+            parTotal += par;
+        }
+        System.out.printf("%-26s %10.3f %10.3f %7.2fx%n",
+                "total (" + threads + " threads)", seqTotal, parTotal, seqTotal / Math.max(parTotal, 0.001));
+        parallel.shutdown();
+    }
+}
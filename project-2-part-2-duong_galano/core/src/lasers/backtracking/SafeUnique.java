@@ -0,0 +1,52 @@
+package lasers.backtracking;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.Arrays;
+
+/**
+ * This is the main class for checking that safes have exactly one
+ * solution.  Given a directory it checks every safe in it, printing
+ * NONE, UNIQUE or MULTIPLE for each, along with the two different
+ * solutions of a safe that has several.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+public class SafeUnique {
+    public static void main(String[] args) throws FileNotFoundException {
+        if (args.length < 1 || args.length > 3) {
+            System.out.println("Usage: java SafeUnique safe-file-or-dir [threads] [string|incremental|bitboard|propagate|constrained]");
+            return;
+        }
+        File target = new File(args[0]);
+        File[] files = target.isDirectory() ? target.listFiles() : new File[] {target};
+        Arrays.sort(files);
+        int threads = args.length >= 2 ? Integer.parseInt(args[1]) : 0;
+        SolverMode mode = args.length == 3 ?
+                SolverMode.valueOf(args[2].toUpperCase()) : SolverMode.PROPAGATE;
+        ParallelBacktracker pbt = threads > 0 ? new ParallelBacktracker(threads) : null;
+        Backtracker bt = new Backtracker(false);
+
+        for (File file : files) {
+            Configuration init;
+            try {
+                init = mode.initial(file.getPath());
+            } catch (RuntimeException e) {
+                // not a safe, e.g. a command script in the same directory
+                continue;
+            }
+            double start = System.currentTimeMillis();
+            Uniqueness result = pbt != null ? pbt.checkUniqueness(init) : bt.checkUniqueness(init);
+            System.out.println(file.getName() + ": " + result.getVerdict() + " (" +
+                    (System.currentTimeMillis() - start)/1000.0 + " seconds)");
+            if (result.getVerdict() == Uniqueness.Verdict.MULTIPLE) {
+                System.out.println("First solution:" + result.getWitnesses().get(0));
+                System.out.println("Second solution:" + result.getWitnesses().get(1));
+            }
+        }
+        if (pbt != null) {
+            pbt.shutdown();
+        }
+    }
+}
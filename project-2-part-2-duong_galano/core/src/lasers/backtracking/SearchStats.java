@@ -0,0 +1,239 @@
+package lasers.backtracking;
+
+import java.util.Arrays;
+
+/**
+ * Counters describing a backtracking search: how many configurations
+ * were expanded and generated, how many were pruned and by which rule,
+ * how many were expanded at each depth, and how long was spent in
+ * isValid and isGoal.
+ *
+ * An instance is not thread-safe.  A parallel search gives each worker
+ * thread its own instance and merges them once the search is over, so
+ * the counters never need to be shared while searching.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+public class SearchStats {
+    /** number of configurations whose successors were generated */
+    private long expanded;
+    /** number of successors generated */
+    private long generated;
+    /** number of successors found invalid, by the rule they broke */
+    private final long[] prunes = new long[PruneReason.values().length];
+    /** number of successors found invalid without a known rule */
+    private long unclassified;
+    /** number of configurations expanded at each depth */
+    private long[] depths = new long[64];
+    /** deepest configuration expanded */
+    private int maxDepth = -1;
+    /** number of calls to isValid */
+    private long validCalls;
+    /** nanoseconds spent in isValid */
+    private long validNanos;
+    /** number of calls to isGoal */
+    private long goalCalls;
+    /** nanoseconds spent in isGoal */
+    private long goalNanos;
+
+    /**
+     * Calls isValid on a configuration, timing it and counting the rule
+     * it broke if it is invalid
+     * @param config the configuration
+     * @return the result of isValid
+     */
+    public boolean isValid(Configuration config) {
+        long start = System.nanoTime();
+        boolean valid = config.isValid();
+        this.validNanos += System.nanoTime() - start;
+        this.validCalls++;
+        if (!valid) {
+            PruneReason reason = config instanceof DiagnosedConfiguration ?
+                    ((DiagnosedConfiguration) config).getPruneReason() : null;
+            if (reason == null) {
+                this.unclassified++;
+            } else {
+                this.prunes[reason.ordinal()]++;
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Calls isGoal on a configuration, timing it
+     * @param config the configuration
+     * @return the result of isGoal
+     */
+    public boolean isGoal(Configuration config) {
+        long start = System.nanoTime();
+        boolean goal = config.isGoal();
+        this.goalNanos += System.nanoTime() - start;
+        this.goalCalls++;
+        return goal;
+    }
+
+    /**
+     * Counts a configuration whose successors are about to be generated
+     * @param depth its depth below the initial configuration
+     */
+    public void expanded(int depth) {
+        this.expanded++;
+        if (depth >= this.depths.length) {
+            this.depths = Arrays.copyOf(this.depths, Math.max(depth + 1, this.depths.length * 2));
+        }
+        this.depths[depth]++;
+        this.maxDepth = Math.max(this.maxDepth, depth);
+    }
+
+    /**
+     * Counts a generated successor
+     */
+    public void generated() {
+        this.generated++;
+    }
+
+    /**
+     * Adds the counters of another instance, such as another thread's,
+     * to this one
+     * @param other the counters to add
+     */
+    public void merge(SearchStats other) {
+        this.expanded += other.expanded;
+        this.generated += other.generated;
+        for (int i = 0; i < this.prunes.length; i++) {
+            this.prunes[i] += other.prunes[i];
+        }
+        this.unclassified += other.unclassified;
+        if (other.depths.length > this.depths.length) {
+            this.depths = Arrays.copyOf(this.depths, other.depths.length);
+        }
+        for (int d = 0; d <= other.maxDepth; d++) {
+            this.depths[d] += other.depths[d];
+        }
+        this.maxDepth = Math.max(this.maxDepth, other.maxDepth);
+        this.validCalls += other.validCalls;
+        this.validNanos += other.validNanos;
+        this.goalCalls += other.goalCalls;
+        this.goalNanos += other.goalNanos;
+    }
+
+    /**
+     * Gets the number of configurations whose successors were generated
+     * @return long for the number of nodes expanded
+     */
+    public long getExpanded() {
+        return this.expanded;
+    }
+
+    /**
+     * Gets the number of successors generated
+     * @return long for the number of successors
+     */
+    public long getGenerated() {
+        return this.generated;
+    }
+
+    /**
+     * Gets the number of successors pruned for breaking a rule
+     * @param reason the rule
+     * @return long for the number of prunes
+     */
+    public long getPrunes(PruneReason reason) {
+        return this.prunes[reason.ordinal()];
+    }
+
+    /**
+     * Gets the number of successors pruned by configurations that do not
+     * say which rule they broke
+     * @return long for the number of prunes
+     */
+    public long getUnclassifiedPrunes() {
+        return this.unclassified;
+    }
+
+    /**
+     * Gets the deepest depth a configuration was expanded at
+     * @return int for the maximum depth, -1 if nothing was expanded
+     */
+    public int getMaxDepth() {
+        return this.maxDepth;
+    }
+
+    /**
+     * Gets the number of configurations expanded at each depth
+     * @return the histogram, indexed by depth up to the maximum depth
+     */
+    public long[] getDepthHistogram() {
+        return Arrays.copyOf(this.depths, this.maxDepth + 1);
+    }
+
+    /**
+     * Gets the number of calls to isValid
+     * @return long for the number of calls
+     */
+    public long getValidCalls() {
+        return this.validCalls;
+    }
+
+    /**
+     * Gets the time spent in isValid
+     * @return long for the time in nanoseconds
+     */
+    public long getValidNanos() {
+        return this.validNanos;
+    }
+
+    /**
+     * Gets the number of calls to isGoal
+     * @return long for the number of calls
+     */
+    public long getGoalCalls() {
+        return this.goalCalls;
+    }
+
+    /**
+     * Gets the time spent in isGoal
+     * @return long for the time in nanoseconds
+     */
+    public long getGoalNanos() {
+        return this.goalNanos;
+    }
+
+    /**
+     * Lays the counters out as a report, with the depth histogram in
+     * buckets of equal width so that it fits on the screen
+     * @return the report
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        result.append("Nodes expanded: ").append(this.expanded).append("\n");
+        result.append("Successors generated: ").append(this.generated).append("\n");
+        result.append("Prunes:\n");
+        for (PruneReason reason : PruneReason.values()) {
+            result.append("  ").append(reason).append(": ").append(this.prunes[reason.ordinal()]).append("\n");
+        }
+        if (this.unclassified > 0) {
+            result.append("  UNCLASSIFIED: ").append(this.unclassified).append("\n");
+        }
+        result.append("isValid: ").append(this.validCalls).append(" calls, ")
+                .append(this.validNanos / 1e9).append(" seconds\n");
+        result.append("isGoal: ").append(this.goalCalls).append(" calls, ")
+                .append(this.goalNanos / 1e9).append(" seconds\n");
+        result.append("Max depth: ").append(this.maxDepth).append("\n");
+        if (this.maxDepth >= 0) {
+            int width = this.maxDepth / 20 + 1;
+            result.append("Nodes expanded by depth:\n");
+            for (int d = 0; d <= this.maxDepth; d += width) {
+                long count = 0;
+                for (int e = d; e < d + width && e <= this.maxDepth; e++) {
+                    count += this.depths[e];
+                }
+                int end = Math.min(d + width - 1, this.maxDepth);
+                result.append(String.format("  %5d-%-5d %d%n", d, end, count));
+            }
+        }
+        return result.toString();
+    }
+}
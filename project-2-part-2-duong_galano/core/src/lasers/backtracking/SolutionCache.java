@@ -0,0 +1,341 @@
+package lasers.backtracking;
+
+import lasers.model.SafeFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A cache of solved boards, keyed by the SHA-256 of the safe's cells, so
+ * that a safe that has been solved before is not searched again.  The
+ * same safe in two files, or written with different spacing or line
+ * endings, has the same key.
+ *
+ * The most recently used boards are kept in memory.  Every board is also
+ * written to a directory, one file per key, so the cache outlives the
+ * JVM.  When the files take more than the disk cap, the ones least
+ * recently used are deleted.  Since a missing board only costs a search,
+ * the disk is used on a best effort basis: a board that cannot be written
+ * or read back is simply not cached.
+ *
+ * Only solutions are cached.  A solve that gave up or found that there
+ * is no solution is searched again next time.  Its methods are
+ * synchronized so that batch workers can share one cache.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+public class SolutionCache {
+    /** where the cache is kept when no directory is given */
+    public static final String DEFAULT_DIRECTORY =
+            System.getProperty("user.home") + File.separator + ".lasers" + File.separator + "solutions";
+    /** boards kept in memory when no size is given */
+    public static final int DEFAULT_MEMORY_ENTRIES = 256;
+    /** bytes of boards kept on disk when no size is given */
+    public static final long DEFAULT_DISK_BYTES = 64L << 20;
+    /** the extension of a cached board */
+    private static final String EXTENSION = ".sol";
+
+    /** the directory the boards are written to */
+    private final Path directory;
+    /** the most bytes of boards kept on disk */
+    private final long diskBytes;
+    /** the most recently used boards, least recently used first */
+    private final Map<String, BoardSnapshot> memory;
+    /** bytes of boards on disk */
+    private long used;
+    /** number of lookups that found their board */
+    private long hits;
+    /** number of lookups that did not find their board */
+    private long misses;
+
+    /**
+     * Opens a cache with the default sizes
+     * @param directory String for the directory to keep the boards in
+     * @throws IOException if the directory cannot be created
+     */
+    public SolutionCache(String directory) throws IOException {
+        this(directory, DEFAULT_MEMORY_ENTRIES, DEFAULT_DISK_BYTES);
+    }
+
+    /**
+     * Opens a cache, creating its directory if need be
+     * @param directory String for the directory to keep the boards in
+     * @param memoryEntries the most boards kept in memory
+     * @param diskBytes the most bytes of boards kept on disk
+     * @throws IOException if the directory cannot be created
+     */
+    public SolutionCache(String directory, int memoryEntries, long diskBytes) throws IOException {
+        this.directory = Files.createDirectories(Paths.get(directory));
+        this.diskBytes = diskBytes;
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, BoardSnapshot> eldest) {
+                return size() > memoryEntries;
+            }
+        };
+        this.used = 0;
+        for (File file : files()) {
+            this.used += file.length();
+        }
+    }
+
+    /**
+     * Works out the key of a safe
+     * @param safe the safe
+     * @return the SHA-256 of its dimensions and cells, in hex
+     */
+    public static String key(SafeFile safe) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+        int n = safe.getRow() * safe.getCol();
+        byte[] bytes = new byte[8 + n];
+        int[] header = {safe.getRow(), safe.getCol()};
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (header[i / 4] >>> (24 - 8 * (i % 4)));
+        }
+        for (int k = 0; k < n; k++) {
+            bytes[8 + k] = (byte) safe.getCell(k);
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest(bytes)) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Looks for the solution of a safe, first in memory and then on disk
+     * @param safe the safe
+     * @return a SOLVED result holding the cached board, or Optional.empty()
+     * if the safe has not been solved before
+     */
+    public synchronized Optional<SolveResult> get(SafeFile safe) {
+        long start = System.currentTimeMillis();
+        String key = key(safe);
+        BoardSnapshot board = this.memory.get(key);
+        if (board != null) {
+            // keep the disk copy as recently used as the memory one, or put
+            // it back if it has been evicted from the disk
+            File file = this.directory.resolve(key + EXTENSION).toFile();
+            if (!file.setLastModified(System.currentTimeMillis())) {
+                write(key, board.toString());
+            }
+        } else {
+            board = read(key, safe);
+            if (board != null) {
+                this.memory.put(key, board);
+            }
+        }
+        if (board == null) {
+            this.misses++;
+            return Optional.empty();
+        }
+        this.hits++;
+        Configuration solution = new CachedSolution(board);
+        return Optional.of(new SolveResult(SolveResult.Status.SOLVED, solution, solution, 0, 0,
+                System.currentTimeMillis() - start));
+    }
+
+    /**
+     * Caches the solution of a safe, if the result holds one
+     * @param safe the safe
+     * @param result how the solve of the safe ended
+     */
+    public synchronized void put(SafeFile safe, SolveResult result) {
+        if (result.getSolution().isPresent()) {
+            put(safe, result.getSolution().get().snapshot());
+        }
+    }
+
+    /**
+     * Caches the solution of a safe
+     * @param safe the safe
+     * @param board the solved board, in SafeConfig's toString form
+     * @throws IllegalArgumentException if the board is not in that form
+     */
+    public synchronized void put(SafeFile safe, String board) {
+        put(safe, BoardSnapshot.parse(board));
+    }
+
+    /**
+     * Caches the solution of a safe
+     * @param safe the safe
+     * @param board the solved board
+     */
+    public synchronized void put(SafeFile safe, BoardSnapshot board) {
+        String key = key(safe);
+        // a board still in memory may have been evicted from the disk
+        if (this.memory.put(key, board) == null || !Files.exists(this.directory.resolve(key + EXTENSION))) {
+            write(key, board.toString());
+        }
+    }
+
+    /**
+     * Gets the number of lookups that found their board
+     * @return the hit count
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * Gets the number of lookups that did not find their board
+     * @return the miss count
+     */
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * Reads a board back from disk and marks it as just used
+     * @param key the key of the safe
+     * @param safe the safe, whose layout the board must have
+     * @return the board, or null if it is not on disk or is damaged
+     */
+    private BoardSnapshot read(String key, SafeFile safe) {
+        File file = this.directory.resolve(key + EXTENSION).toFile();
+        if (!file.isFile()) {
+            return null;
+        }
+        BoardSnapshot board;
+        try {
+            board = BoardSnapshot.parse(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            return null;
+        } catch (IllegalArgumentException e) {
+            board = null;
+        }
+        if (board == null || !fits(board, safe)) {
+            this.used -= file.length();
+            file.delete();
+            return null;
+        }
+        file.setLastModified(System.currentTimeMillis());
+        return board;
+    }
+
+    /**
+     * Checks that a board has the dimensions, walls and pillars of a safe,
+     * and only lasers, beams and empty cells everywhere else
+     * @param board the board read back from disk
+     * @param safe the safe
+     * @return true if the board could be a solution of the safe
+     */
+    private static boolean fits(BoardSnapshot board, SafeFile safe) {
+        if (board.getRow() != safe.getRow() || board.getCol() != safe.getCol()) {
+            return false;
+        }
+        for (int r = 0; r < safe.getRow(); r++) {
+            for (int c = 0; c < safe.getCol(); c++) {
+                char expected = safe.getCell(r, c);
+                char actual = board.getCell(r, c);
+                if (expected == '.' ? actual != '.' && actual != '*' && actual != 'L' : actual != expected) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes a board to disk, then deletes the least recently used boards
+     * until the disk cap is met again
+     * @param key the key of the safe
+     * @param board the solved board
+     */
+    private void write(String key, String board) {
+        Path target = this.directory.resolve(key + EXTENSION);
+        try {
+            long before = Files.exists(target) ? Files.size(target) : 0;
+            // write aside and move into place, so a reader never sees half a board
+            Path temp = Files.createTempFile(this.directory, key, ".tmp");
+            Files.write(temp, board.getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            this.used += Files.size(target) - before;
+        } catch (IOException e) {
+            return;
+        }
+        if (this.used > this.diskBytes) {
+            File[] files = files();
+            Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+            for (int i = 0; i < files.length && this.used > this.diskBytes; i++) {
+                long length = files[i].length();
+                if (files[i].delete()) {
+                    this.used -= length;
+                }
+            }
+        }
+    }
+
+    /**
+     * Lists the boards on disk
+     * @return the board files
+     */
+    private File[] files() {
+        File[] files = this.directory.toFile().listFiles((dir, name) -> name.endsWith(EXTENSION));
+        return files == null ? new File[0] : files;
+    }
+
+    /**
+     * A solved board read back from the cache.  It stands in for the goal
+     * configuration the search would have found, so callers can treat a
+     * cached solution like any other SolveResult.
+     */
+    private static class CachedSolution implements Configuration {
+        /** the solved board */
+        private final BoardSnapshot board;
+
+        /**
+         * Creates the solution
+         * @param board the solved board
+         */
+        CachedSolution(BoardSnapshot board) {
+            this.board = board;
+        }
+
+        @Override
+        public Collection<Configuration> getSuccessors() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isValid() {
+            return true;
+        }
+
+        @Override
+        public boolean isGoal() {
+            return true;
+        }
+
+        @Override
+        public BoardSnapshot snapshot() {
+            return this.board;
+        }
+
+        @Override
+        public String toString() {
+            return this.board.toString();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package lasers.backtracking;
+
+/**
+ * A solve to be run by the backtracker, along with the limits on how much
+ * work it may do: a budget of configurations to look at, a wall-clock
+ * deadline, and a token that can cancel it from another thread.  With no
+ * limits set the solve runs until it finds a goal or runs out of
+ * configurations, just like Backtracker.solve.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+public class SolveRequest {
+    /** the configuration to start from */
+    private final Configuration initial;
+    /** most configurations the search may look at */
+    private long nodeBudget = Long.MAX_VALUE;
+    /** time, in milliseconds since the epoch, after which the search gives up */
+    private long deadline = Long.MAX_VALUE;
+    /** asks the search to stop, or null if it cannot be cancelled */
+    private CancellationToken cancellation;
+
+    /**
+     * Creates a request with no limits
+     * @param initial A valid configuration to start from
+     */
+    public SolveRequest(Configuration initial) {
+        this.initial = initial;
+    }
+
+    /**
+     * Gets the configuration to start from
+     * @return the initial configuration
+     */
+    public Configuration getInitial() {
+        return this.initial;
+    }
+
+    /**
+     * Gets the most configurations the search may look at
+     * @return long for the node budget
+     */
+    public long getNodeBudget() {
+        return this.nodeBudget;
+    }
+
+    /**
+     * Sets the most configurations the search may look at
+     * @param nodeBudget long for the node budget
+     */
+    public void setNodeBudget(long nodeBudget) {
+        this.nodeBudget = nodeBudget;
+    }
+
+    /**
+     * Gets the time after which the search gives up
+     * @return long for the deadline, in milliseconds since the epoch
+     */
+    public long getDeadline() {
+        return this.deadline;
+    }
+
+    /**
+     * Sets the time after which the search gives up
+     * @param deadline long for the deadline, in milliseconds since the epoch
+     */
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Sets the deadline to a number of milliseconds from now
+     * @param millis long for the time the search may take
+     */
+    public void setTimeLimit(long millis) {
+        this.deadline = System.currentTimeMillis() + millis;
+    }
+
+    /**
+     * Gets the token that can cancel the search
+     * @return the token, or null if there is none
+     */
+    public CancellationToken getCancellation() {
+        return this.cancellation;
+    }
+
+    /**
+     * Sets the token that can cancel the search
+     * @param cancellation the token, or null for none
+     */
+    public void setCancellation(CancellationToken cancellation) {
+        this.cancellation = cancellation;
+    }
+}
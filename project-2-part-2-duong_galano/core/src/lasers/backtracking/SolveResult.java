@@ -0,0 +1,106 @@
+package lasers.backtracking;
+
+import java.util.Optional;
+
+/**
+ * What a budgeted solve came back with.  Besides the solution, if there
+ * is one, it holds the deepest valid configuration the search reached,
+ * which is the closest thing to a solution when the search gave up.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+public class SolveResult {
+    /** How a budgeted solve ended */
+    public enum Status {
+        /** a goal was found */
+        SOLVED,
+        /** the whole search space was searched without finding a goal */
+        UNSATISFIABLE,
+        /** the node budget or the deadline ran out first */
+        BUDGET_EXHAUSTED,
+        /** the cancellation token was set first */
+        CANCELLED
+    }
+
+    /** how the solve ended */
+    private final Status status;
+    /** the goal, if one was found */
+    private final Configuration solution;
+    /** the deepest valid configuration reached */
+    private final Configuration deepest;
+    /** depth of the deepest configuration below the initial one */
+    private final int depth;
+    /** number of configurations looked at */
+    private final long nodes;
+    /** time the solve took, in milliseconds */
+    private final long elapsed;
+
+    /**
+     * Creates a result
+     * @param status how the solve ended
+     * @param solution the goal, or null if none was found
+     * @param deepest the deepest valid configuration reached
+     * @param depth depth of the deepest configuration
+     * @param nodes number of configurations looked at
+     * @param elapsed time the solve took, in milliseconds
+     */
+    public SolveResult(Status status, Configuration solution, Configuration deepest,
+                       int depth, long nodes, long elapsed) {
+        this.status = status;
+        this.solution = solution;
+        this.deepest = deepest;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * Gets how the solve ended
+     * @return the status
+     */
+    public Status getStatus() {
+        return this.status;
+    }
+
+    /**
+     * Gets the goal
+     * @return the goal, or Optional.empty() if none was found
+     */
+    public Optional<Configuration> getSolution() {
+        return Optional.ofNullable(this.solution);
+    }
+
+    /**
+     * Gets the deepest valid configuration the search reached: the goal
+     * when solved, otherwise the partial board furthest from the start
+     * @return the deepest configuration
+     */
+    public Configuration getDeepest() {
+        return this.deepest;
+    }
+
+    /**
+     * Gets how many decisions the deepest configuration is below the start
+     * @return int for the depth
+     */
+    public int getDepth() {
+        return this.depth;
+    }
+
+    /**
+     * Gets the number of configurations looked at
+     * @return long for the number of nodes
+     */
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    /**
+     * Gets the time the solve took
+     * @return long for the elapsed time in milliseconds
+     */
+    public long getElapsed() {
+        return this.elapsed;
+    }
+}
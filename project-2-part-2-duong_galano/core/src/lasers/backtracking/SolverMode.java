@@ -0,0 +1,55 @@
+package lasers.backtracking;
+
+import lasers.model.SafeFile;
+
+import java.io.FileNotFoundException;
+
+/**
+ * The different board representations the backtracker can search with.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+public enum SolverMode {
+    /** the original ModelData[][] board, SafeConfig */
+    STRING,
+    /** SafeConfig validating only what the last placement affects */
+    INCREMENTAL,
+    /** the packed long[] bitset board, BitSafeConfig */
+    BITBOARD,
+    /** PropagatingConfig, which propagates pillar and dark cell clues */
+    PROPAGATE,
+    /** PropagatingConfig branching on the most constrained cell first */
+    CONSTRAINED;
+
+    /**
+     * Creates the starting configuration for a safe file in this mode
+     * @param filename String for the name of the file
+     * @return the initial configuration
+     * @throws FileNotFoundException if the file does not exist
+     */
+    public Configuration initial(String filename) throws FileNotFoundException {
+        return initial(SafeFile.read(filename));
+    }
+
+    /**
+     * Creates the starting configuration for an already read safe, such
+     * as one from a SafeCorpus, in this mode
+     * @param safe SafeFile holding the cells
+     * @return the initial configuration
+     */
+    public Configuration initial(SafeFile safe) {
+        switch (this) {
+            case INCREMENTAL:
+                return new SafeConfig(safe, true);
+            case BITBOARD:
+                return new BitSafeConfig(safe);
+            case PROPAGATE:
+                return new PropagatingConfig(safe, false);
+            case CONSTRAINED:
+                return new PropagatingConfig(safe, true);
+            default:
+                return new SafeConfig(safe, false);
+        }
+    }
+}
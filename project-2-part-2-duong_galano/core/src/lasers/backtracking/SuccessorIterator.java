@@ -0,0 +1,53 @@
+package lasers.backtracking;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+
+/**
+ * A lazy iterator over a fixed number of successors, each built by index
+ * only when the backtracker asks for it.  When the first successor leads
+ * to a goal, the others are never built at all.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+class SuccessorIterator implements Iterator<Configuration> {
+    /** builds the successor with a given index */
+    private final IntFunction<Configuration> child;
+    /** number of successors */
+    private final int count;
+    /** index of the next successor to build */
+    private int index;
+
+    /**
+     * Creates the iterator
+     * @param count number of successors
+     * @param child builds the successor with a given index, from 0
+     */
+    SuccessorIterator(int count, IntFunction<Configuration> child) {
+        this.count = count;
+        this.child = child;
+    }
+
+    /**
+     * Are there successors left to build?
+     * @return true if so
+     */
+    @Override
+    public boolean hasNext() {
+        return this.index < this.count;
+    }
+
+    /**
+     * Builds the next successor
+     * @return the successor
+     */
+    @Override
+    public Configuration next() {
+        if (this.index >= this.count) {
+            throw new NoSuchElementException();
+        }
+        return this.child.apply(this.index++);
+    }
+}
@@ -0,0 +1,271 @@
+package lasers.backtracking;
+
+/**
+ * A bounded cache of the hash keys of configurations that have been
+ * proven to have no goal below them.  It holds a fixed number of keys,
+ * worked out from a memory cap, in primitive arrays indexed by an
+ * open-addressing hash table.  When it is full, either the least recently
+ * used key (LRU) or the first key the clock hand finds without its
+ * reference bit (CLOCK) is evicted.
+ *
+ * Since an evicted key only costs a repeated search, the table never
+ * needs to be exact.  Its methods are synchronized so that the workers
+ * of a parallel search can share one table.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+public class TranspositionTable {
+    /** How room is made for a new key once the table is full */
+    public enum Eviction { LRU, CLOCK }
+
+    /** most bytes used per key: the key, up to four index slots, the LRU links and the clock bit */
+    public static final int BYTES_PER_ENTRY = 8 + 4 * 4 + 2 * 4 + 1;
+
+    /** the eviction policy */
+    private final Eviction eviction;
+    /** the key held in each slot */
+    private final long[] keys;
+    /** open-addressing index from key hash to slot + 1, 0 when empty */
+    private final int[] index;
+    /** mask to reduce a hash to an index position */
+    private final int mask;
+    /** previous slot in LRU order, towards the least recently used */
+    private final int[] older;
+    /** next slot in LRU order, towards the most recently used */
+    private final int[] newer;
+    /** least recently used slot */
+    private int oldest;
+    /** most recently used slot */
+    private int newest;
+    /** reference bit of each slot for CLOCK */
+    private final boolean[] referenced;
+    /** next slot the clock hand looks at */
+    private int hand;
+    /** number of slots in use */
+    private int size;
+    /** number of lookups that found their key */
+    private long hits;
+    /** number of lookups that did not find their key */
+    private long misses;
+
+    /**
+     * Creates an empty table
+     * @param memoryBytes the most memory the table may use
+     * @param eviction how room is made once the table is full
+     */
+    public TranspositionTable(long memoryBytes, Eviction eviction) {
+        int capacity = (int) Math.max(1, Math.min(memoryBytes / BYTES_PER_ENTRY, 1 << 29));
+        this.eviction = eviction;
+        this.keys = new long[capacity];
+        // a power of two at least twice the capacity keeps probe runs short
+        this.index = new int[Integer.highestOneBit(Math.max(1, capacity - 1)) * 4];
+        this.mask = this.index.length - 1;
+        if (eviction == Eviction.LRU) {
+            this.older = new int[capacity];
+            this.newer = new int[capacity];
+            this.referenced = null;
+        } else {
+            this.older = null;
+            this.newer = null;
+            this.referenced = new boolean[capacity];
+        }
+        this.oldest = -1;
+        this.newest = -1;
+    }
+
+    /**
+     * Has a configuration with this key been proven to have no goal?
+     * @param key the hash key of the configuration
+     * @return true if the key is in the table
+     */
+    public synchronized boolean isDead(long key) {
+        int slot = find(key);
+        if (slot < 0) {
+            this.misses++;
+            return false;
+        }
+        this.hits++;
+        touch(slot);
+        return true;
+    }
+
+    /**
+     * Records that a configuration has no goal below it
+     * @param key the hash key of the configuration
+     */
+    public synchronized void markDead(long key) {
+        if (find(key) >= 0) {
+            return;
+        }
+        int slot;
+        if (this.size < this.keys.length) {
+            slot = this.size++;
+        } else {
+            slot = victim();
+            unindex(slot);
+        }
+        this.keys[slot] = key;
+        int i = home(key);
+        while (this.index[i] != 0) {
+            i = (i + 1) & this.mask;
+        }
+        this.index[i] = slot + 1;
+        if (this.eviction == Eviction.LRU) {
+            linkNewest(slot);
+        } else {
+            this.referenced[slot] = true;
+        }
+    }
+
+    /**
+     * Gets the number of keys held
+     * @return int for the number of keys
+     */
+    public synchronized int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets the number of keys the table can hold
+     * @return int for the capacity
+     */
+    public int capacity() {
+        return this.keys.length;
+    }
+
+    /**
+     * Gets the number of lookups that found a dead configuration
+     * @return long for the number of hits
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * Gets the number of lookups that did not
+     * @return long for the number of misses
+     */
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * Where a key's probe sequence starts in the index
+     * @param key the key
+     * @return the index position
+     */
+    private int home(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return (int) (key ^ (key >>> 32)) & this.mask;
+    }
+
+    /**
+     * Finds the slot holding a key
+     * @param key the key
+     * @return the slot, or -1 if the key is not held
+     */
+    private int find(long key) {
+        int i = home(key);
+        while (this.index[i] != 0) {
+            if (this.keys[this.index[i] - 1] == key) {
+                return this.index[i] - 1;
+            }
+            i = (i + 1) & this.mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Removes a slot's key from the index, shifting back later entries of
+     * the same probe run so that lookups never stop early
+     * @param slot the slot being reused
+     */
+    private void unindex(int slot) {
+        int i = home(this.keys[slot]);
+        while (this.index[i] != slot + 1) {
+            i = (i + 1) & this.mask;
+        }
+        this.index[i] = 0;
+        int j = i;
+        while (true) {
+            j = (j + 1) & this.mask;
+            if (this.index[j] == 0) {
+                return;
+            }
+            int k = home(this.keys[this.index[j] - 1]);
+            boolean movable = i <= j ? (k <= i || k > j) : (k <= i && k > j);
+            if (movable) {
+                this.index[i] = this.index[j];
+                this.index[j] = 0;
+                i = j;
+            }
+        }
+    }
+
+    /**
+     * Notes that a slot was just used
+     * @param slot the slot
+     */
+    private void touch(int slot) {
+        if (this.eviction == Eviction.LRU) {
+            if (slot != this.newest) {
+                unlink(slot);
+                linkNewest(slot);
+            }
+        } else {
+            this.referenced[slot] = true;
+        }
+    }
+
+    /**
+     * Picks the slot to evict, taking it out of the LRU list if there is one
+     * @return the slot
+     */
+    private int victim() {
+        if (this.eviction == Eviction.LRU) {
+            int slot = this.oldest;
+            unlink(slot);
+            return slot;
+        }
+        while (this.referenced[this.hand]) {
+            this.referenced[this.hand] = false;
+            this.hand = (this.hand + 1) % this.keys.length;
+        }
+        int slot = this.hand;
+        this.hand = (this.hand + 1) % this.keys.length;
+        return slot;
+    }
+
+    /**
+     * Adds a slot at the most recently used end of the LRU list
+     * @param slot the slot
+     */
+    private void linkNewest(int slot) {
+        this.older[slot] = this.newest;
+        this.newer[slot] = -1;
+        if (this.newest >= 0) {
+            this.newer[this.newest] = slot;
+        } else {
+            this.oldest = slot;
+        }
+        this.newest = slot;
+    }
+
+    /**
+     * Takes a slot out of the LRU list
+     * @param slot the slot
+     */
+    private void unlink(int slot) {
+        if (this.older[slot] >= 0) {
+            this.newer[this.older[slot]] = this.newer[slot];
+        } else {
+            this.oldest = this.newer[slot];
+        }
+        if (this.newer[slot] >= 0) {
+            this.older[this.newer[slot]] = this.older[slot];
+        } else {
+            this.newest = this.older[slot];
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package lasers.backtracking;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The answer to whether a puzzle has exactly one solution, along with
+ * the solutions that were found on the way to the answer.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+public class Uniqueness {
+    /** How many solutions a puzzle has */
+    public enum Verdict { NONE, UNIQUE, MULTIPLE }
+
+    /** how many solutions the puzzle has */
+    private final Verdict verdict;
+    /** the solutions found: none, the only one, or the first two */
+    private final List<Configuration> witnesses;
+
+    /**
+     * Creates the answer from the solutions a search found before stopping
+     * @param witnesses up to two solutions
+     */
+    public Uniqueness(List<Configuration> witnesses) {
+        this.witnesses = Collections.unmodifiableList(witnesses);
+        if (witnesses.isEmpty()) {
+            this.verdict = Verdict.NONE;
+        } else if (witnesses.size() == 1) {
+            this.verdict = Verdict.UNIQUE;
+        } else {
+            this.verdict = Verdict.MULTIPLE;
+        }
+    }
+
+    /**
+     * Gets how many solutions the puzzle has
+     * @return the verdict
+     */
+    public Verdict getVerdict() {
+        return this.verdict;
+    }
+
+    /**
+     * Gets the solutions found: empty for NONE, the solution for UNIQUE
+     * and two different solutions for MULTIPLE
+     * @return the witnesses
+     */
+    public List<Configuration> getWitnesses() {
+        return this.witnesses;
+    }
+}
@@ -0,0 +1,123 @@
+package lasers.model;
+
+/**
+ * The cells of the board whose symbol changed since the observers were
+ * last notified, with the symbol each showed before and shows now.  A
+ * cell that changed and then changed back, within one command or one
+ * batch of commands, is not listed.  The cells are in row-major order.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+public class ChangeSet {
+    /** a change set with no cells in it */
+    public static final ChangeSet EMPTY = new ChangeSet(1, false, new int[0], new char[0], new char[0]);
+
+    /** number of columns of the board */
+    private final int col;
+    /** whether a board of another size was loaded since the last change set */
+    private final boolean resized;
+    /** row-major index of each changed cell */
+    private final int[] cells;
+    /** the symbol each cell showed before */
+    private final char[] before;
+    /** the symbol each cell shows now */
+    private final char[] after;
+
+    /**
+     * Creates a change set, taking ownership of the arrays
+     * @param col number of columns of the board
+     * @param resized whether a board of another size was loaded since the
+     * last change set
+     * @param cells row-major index of each changed cell, in increasing order
+     * @param before the symbol each cell showed before
+     * @param after the symbol each cell shows now
+     */
+    ChangeSet(int col, boolean resized, int[] cells, char[] before, char[] after) {
+        this.col = col;
+        this.resized = resized;
+        this.cells = cells;
+        this.before = before;
+        this.after = after;
+    }
+
+    /**
+     * Gets the number of changed cells
+     * @return int for the number of cells
+     */
+    public int size() {
+        return this.cells.length;
+    }
+
+    /**
+     * Whether no cell changed
+     * @return true if there are no cells in the set
+     */
+    public boolean isEmpty() {
+        return this.cells.length == 0;
+    }
+
+    /**
+     * Whether a board of another size was loaded since the last change
+     * set, even if the board is now back to the size it was.  Every cell
+     * is then listed, with a space for its old symbol, and a view should
+     * be rebuilt rather than patched.
+     * @return true if the board was resized
+     */
+    public boolean isResized() {
+        return this.resized;
+    }
+
+    /**
+     * Gets the row of a changed cell
+     * @param i int for the index of the change
+     * @return int for its row
+     */
+    public int getRow(int i) {
+        return this.cells[i] / this.col;
+    }
+
+    /**
+     * Gets the column of a changed cell
+     * @param i int for the index of the change
+     * @return int for its column
+     */
+    public int getCol(int i) {
+        return this.cells[i] % this.col;
+    }
+
+    /**
+     * Gets the symbol a changed cell showed before
+     * @param i int for the index of the change
+     * @return one of . X 0 1 2 3 4 L *, or a space if the board was resized
+     */
+    public char getOld(int i) {
+        return this.before[i];
+    }
+
+    /**
+     * Gets the symbol a changed cell shows now
+     * @param i int for the index of the change
+     * @return one of . X 0 1 2 3 4 L *
+     */
+    public char getNew(int i) {
+        return this.after[i];
+    }
+
+    /**
+     * Lists the changes as (row, col) old->new
+     * @return the changes, separated by spaces
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < size(); i++) {
+            if (i > 0) {
+                result.append(" ");
+            }
+            result.append("(").append(getRow(i)).append(", ").append(getCol(i)).append(") ")
+                    .append(getOld(i)).append("->").append(getNew(i));
+        }
+        return result.toString();
+    }
+}
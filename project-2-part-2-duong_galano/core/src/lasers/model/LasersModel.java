@@ -0,0 +1,826 @@
+package lasers.model;
+
+import lasers.backtracking.Backtracker;
+import lasers.backtracking.BoardSnapshot;
+import lasers.backtracking.CancellationToken;
+import lasers.backtracking.Configuration;
+import lasers.backtracking.SolveRequest;
+import lasers.backtracking.SolutionCache;
+import lasers.backtracking.SolveResult;
+import lasers.backtracking.SolverMode;
+
+import java.io.FileNotFoundException;
+import java.util.*;
+
+/**
+ * The model of the lasers safe.  You are free to change this class however
+ * you wish, but it should still follow the MVC architecture.
+ *
+ * @author RIT CS
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+public class LasersModel {
+    /** adds and removes the history keeps when no depth is given */
+    public static final int DEFAULT_HISTORY_DEPTH = 1024;
+    /**
+     * ints in one history entry: the laser cell, 1 if the laser was added
+     * or -1 if it was removed, and the length of each of its four beams
+     */
+    private static final int ENTRY = 6;
+
+    /** number of rows of the board */
+    private int row;
+    /** number of columns of the board */
+    private int col;
+    /** game board */
+    private ModelData[][] model;
+    /** the symbol of each cell, in row-major order */
+    private char[] cells;
+    /** number of lasers lighting each cell, in row-major order */
+    private int[] lit;
+    /** number of lasers next to each cell, only meaningful for pillars */
+    private int[] adjacent;
+    /** row-major indices of the empty cells no laser lights */
+    private TreeSet<Integer> dark;
+    /** row-major indices of the lasers another laser can see */
+    private TreeSet<Integer> seen;
+    /** row-major indices of the pillars with the wrong number of lasers next to them */
+    private TreeSet<Integer> unmet;
+    /** the row and column steps of the four directions a beam travels */
+    private static final int[][] DIRECTIONS = {{-1, 0}, {0, 1}, {1, 0}, {0, -1}};
+    /** number of cells each beam of the last laser shone ran over, in DIRECTIONS order */
+    private final int[] reach = new int[DIRECTIONS.length];
+    /** the adds and removes that can be undone or redone, a ring of ENTRY ints each */
+    private int[] history = new int[DEFAULT_HISTORY_DEPTH * ENTRY];
+    /** the most entries the history keeps */
+    private int historyDepth = DEFAULT_HISTORY_DEPTH;
+    /** index of the oldest entry in the ring */
+    private int historyStart;
+    /** number of entries in the ring, counting the ones that were undone */
+    private int historySize;
+    /** number of entries that have not been undone, the rest can be redone */
+    private int historyDone;
+    /** whether each cell has changed since the observers were last notified */
+    private boolean[] changed;
+    /** the symbol each changed cell showed when the observers were last notified */
+    private char[] shown;
+    /** row-major indices of the changed cells, in the order they first changed */
+    private int[] dirty;
+    /** number of changed cells */
+    private int dirtyCount;
+    /** whether a board of another size was loaded since the observers were last notified */
+    private boolean resized;
+    /** number of batches begun and not yet ended */
+    private int batchDepth;
+    /** number of notifications held back by the current batch */
+    private int batched;
+    /** the observers who are registered with this model */
+    private List<Observer<LasersModel, ModelData>> observers;
+    /** the board representation used when solving */
+    private SolverMode solverMode = SolverMode.STRING;
+    /** milliseconds the solve button may search for, 0 for no limit */
+    private long solveTimeLimit;
+    /** cancels the solve in progress */
+    private volatile CancellationToken solveCancellation;
+    /** how the last solve ended, or null if there has been none */
+    private SolveResult lastSolve;
+    /** solutions of safes solved before, or null to always search */
+    private SolutionCache solutionCache;
+
+    /**
+     * Creates a new LaserModel instance and sets the observers
+     * @param filename String for the name of the file
+     * @throws FileNotFoundException if the file is not found
+     */
+    public LasersModel(String filename) throws FileNotFoundException {
+        this.observers = new LinkedList<>();
+        createModel(filename);
+        // nobody has seen the board yet, so nothing has changed
+        changes();
+    }
+
+    /**
+     * Gets the number of rows of the board
+     * @return int for the number of rows
+     */
+    public int getRow() {
+        return this.row;
+    }
+
+    /**
+     * Gets the number of columns of the board
+     * @return int for the number of columns
+     */
+    public int getCol() {
+        return this.col;
+    }
+
+    /**
+     * Sets the board representation used by the solve button
+     * @param solverMode SolverMode to solve with
+     */
+    public void setSolverMode(SolverMode solverMode) {
+        this.solverMode = solverMode;
+    }
+
+    /**
+     * Sets how long the solve button may search before giving up
+     * @param millis long for the time limit in milliseconds, 0 for no limit
+     */
+    public void setSolveTimeLimit(long millis) {
+        this.solveTimeLimit = millis;
+    }
+
+    /**
+     * Sets the cache the solve button looks in before searching, and
+     * stores its solutions in
+     * @param solutionCache SolutionCache to use, or null to always search
+     */
+    public void setSolutionCache(SolutionCache solutionCache) {
+        this.solutionCache = solutionCache;
+    }
+
+    /**
+     * Sets how many adds and removes can be undone.  The history is
+     * cleared, and an empty ring of that many entries is allocated.
+     * @param depth int for the number of entries, 0 to keep no history
+     * @throws IllegalArgumentException if the depth is negative
+     */
+    public void setHistoryDepth(int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("history depth must not be negative: " + depth);
+        }
+        this.history = new int[depth * ENTRY];
+        this.historyDepth = depth;
+        clearHistory();
+    }
+
+    /**
+     * Gets how many adds and removes can be undone
+     * @return int for the number of entries the history keeps
+     */
+    public int getHistoryDepth() {
+        return this.historyDepth;
+    }
+
+    /**
+     * Whether there is an add or remove to undo
+     * @return true if undo would change the board
+     */
+    public boolean canUndo() {
+        return this.historyDone > 0;
+    }
+
+    /**
+     * Whether there is an undone add or remove to redo
+     * @return true if redo would change the board
+     */
+    public boolean canRedo() {
+        return this.historyDone < this.historySize;
+    }
+
+    /**
+     * Asks a solve running on another thread to stop
+     */
+    public void cancelSolve() {
+        CancellationToken token = this.solveCancellation;
+        if (token != null) {
+            token.cancel();
+        }
+    }
+
+    /**
+     * Gets how the last solve ended
+     * @return the result, or null if there has been no solve
+     */
+    public SolveResult getLastSolve() {
+        return this.lastSolve;
+    }
+
+    /**
+     * Creates a game board by reading in a file
+     * and setting all their commands to initialized
+     * @param fileName String for the name of the file
+     * @throws FileNotFoundException if the file does not exist
+     */
+    public void createModel(String fileName) throws FileNotFoundException {
+        createModel(SafeFile.read(fileName));
+    }
+
+    /**
+     * Creates a game board from an already read safe
+     * and setting all their commands to initialized
+     * @param safe SafeFile holding the cells
+     */
+    private void createModel(SafeFile safe) {
+        if (this.cells == null || safe.getRow() != this.row || safe.getCol() != this.col) {
+            this.row = safe.getRow();
+            this.col = safe.getCol();
+            // every cell of a board of a new size changes, from nothing
+            this.cells = new char[this.row * this.col];
+            Arrays.fill(this.cells, ' ');
+            this.changed = new boolean[this.cells.length];
+            this.shown = new char[this.cells.length];
+            this.dirty = new int[this.cells.length];
+            this.dirtyCount = 0;
+            this.resized = true;
+        }
+        this.model = new ModelData[this.row][this.col];
+        for (int i = 0; i < this.row; i++) {
+            for (int j = 0; j < this.col; j++) {
+                set(i * this.col + j, safe.getSymbol(i, j), ModelData.Commands.INITIALIZE);
+            }
+        }
+        recount(ModelData.Commands.INITIALIZE);
+        clearHistory();
+    }
+
+    /**
+     * Works out the beam and pillar counts, and the rules each cell breaks,
+     * from scratch for the symbols on the board
+     * @param command the command any cell whose beam is corrected is marked with
+     */
+    private void recount(ModelData.Commands command) {
+        this.lit = new int[this.row * this.col];
+        this.adjacent = new int[this.row * this.col];
+        this.dark = new TreeSet<>();
+        this.seen = new TreeSet<>();
+        this.unmet = new TreeSet<>();
+        for (int k = 0; k < this.cells.length; k++) {
+            if (this.cells[k] == 'L') {
+                shine(k / this.col, k % this.col, 1, command);
+                touch(k / this.col, k % this.col, 1);
+            }
+        }
+        for (int k = 0; k < this.cells.length; k++) {
+            track(k);
+        }
+    }
+
+    /**
+     * Add a new observer.
+     *
+     * @param observer the new observer
+     */
+    public void addObserver(Observer<LasersModel, ModelData > observer) {
+        this.observers.add(observer);
+    }
+
+    /**
+     * Notify observers the model has changed.  The data sent carries the
+     * cells that changed since the last notification.  During a batch
+     * nothing is sent until the batch ends.
+     *
+     * @param data optional data the model can send to the view
+     */
+    private void notifyObservers(ModelData data){
+        if (this.batchDepth > 0) {
+            this.batched++;
+            return;
+        }
+        if (data != null) {
+            data = new ModelData(data.getRow(), data.getCol(), data.getVal(), data.getCommand(), changes());
+        }
+        for (Observer<LasersModel, ModelData> observer: observers) {
+            observer.update(this, data);
+        }
+    }
+
+    /**
+     * Starts holding back notifications, so that a burst of commands,
+     * such as an input file being replayed, reaches the observers as one
+     * BATCH notification listing every cell the burst changed.  Batches
+     * may be nested, only the outermost one notifies.
+     */
+    public void beginBatch() {
+        this.batchDepth++;
+    }
+
+    /**
+     * Ends a batch.  If it was the outermost batch and any command in it
+     * would have notified the observers, they are sent one BATCH
+     * notification instead.
+     * @throws IllegalStateException if no batch was begun
+     */
+    public void endBatch() {
+        if (this.batchDepth == 0) {
+            throw new IllegalStateException("no batch to end");
+        }
+        this.batchDepth--;
+        if (this.batchDepth == 0 && this.batched > 0) {
+            this.batched = 0;
+            String value = this.model[0][0].getVal();
+            notifyObservers(new ModelData(0, 0, value, ModelData.Commands.BATCH));
+        }
+    }
+
+    /**
+     * Changes what a cell shows, noting the change for the next
+     * notification
+     * @param k row-major index of the cell
+     * @param symbol the symbol it shows now
+     * @param command the command the cell is marked with
+     */
+    private void set(int k, String symbol, ModelData.Commands command) {
+        if (!this.changed[k]) {
+            this.changed[k] = true;
+            this.shown[k] = this.cells[k];
+            this.dirty[this.dirtyCount++] = k;
+        }
+        this.cells[k] = symbol.charAt(0);
+        this.model[k / this.col][k % this.col] = new ModelData(k / this.col, k % this.col, symbol, command);
+    }
+
+    /**
+     * Collects the cells that changed since the last notification and
+     * starts over.  A cell showing what it showed before is left out.
+     * @return the changes
+     */
+    private ChangeSet changes() {
+        Arrays.sort(this.dirty, 0, this.dirtyCount);
+        int[] cells = new int[this.dirtyCount];
+        char[] before = new char[this.dirtyCount];
+        char[] after = new char[this.dirtyCount];
+        int n = 0;
+        for (int i = 0; i < this.dirtyCount; i++) {
+            int k = this.dirty[i];
+            this.changed[k] = false;
+            if (this.shown[k] != this.cells[k]) {
+                cells[n] = k;
+                before[n] = this.shown[k];
+                after[n] = this.cells[k];
+                n++;
+            }
+        }
+        this.dirtyCount = 0;
+        boolean resized = this.resized;
+        this.resized = false;
+        return n == 0 ? ChangeSet.EMPTY : new ChangeSet(this.col, resized,
+                Arrays.copyOf(cells, n), Arrays.copyOf(before, n), Arrays.copyOf(after, n));
+    }
+
+    /**
+     * Checks to see if the dimensions of the user are within the bounds of the board
+     * @param row integer of the user row input
+     * @param col integer of the user column input
+     * @return boolean whether or not the coordinate is valid
+     */
+    public boolean isCoordValid(int row, int col) {
+        return (row >= 0) && (row < this.row) && (col >= 0) && (col < this.col);
+    }
+
+    /**
+     * Gets the instance of the safe
+     * @return Safe
+     */
+    public ModelData[][] getModel() {
+        return this.model;
+    }
+
+    /**
+     * Method called when the user clicks on a tile
+     * Determines whether a laser should be added or removed
+     * @param row row of the tile the user clicked
+     * @param col column of the tile the user clicked
+     */
+    public void click(int row, int col) {
+        String value = model[row][col].getVal();
+        if (value.equals("L")) {
+            String[] com = {"r", String.valueOf(row), String.valueOf(col)};
+            command(com);
+        } else {
+            String[] com = {"a", String.valueOf(row), String.valueOf(col)};
+            command(com);
+        }
+    }
+
+    /**
+     * Method called when the user clicks on the check button
+     */
+    public void check(){
+        String [] com = {"v"};
+        command(com);
+    }
+
+    /**
+     * Method called when the user clicks on the load button
+     * Overwrites the model with a new model
+     * @param filename String for the name of the file
+     * @throws FileNotFoundException if the file is not found
+     */
+    public void load(String filename) throws FileNotFoundException {
+        createModel(filename);
+        String load = this.model[0][0].getVal();
+        this.model[0][0] = new ModelData(0, 0, load, ModelData.Commands.LOAD);
+        notifyObservers(this.model[0][0]);
+    }
+
+    /**
+     * Method called when the user clicks on the reset button
+     * Overwrites the model with an empty version of the model
+     * @param filename String for the name of the file
+     * @throws FileNotFoundException if the file is not found
+     */
+    public void restart(String filename) throws FileNotFoundException {
+        createModel(filename);
+        String reset = this.model[0][0].getVal();
+        this.model[0][0] = new ModelData(0, 0, reset, ModelData.Commands.RESET);
+        notifyObservers(this.model[0][0]);
+    }
+
+    /**
+     * Method called when the user clicks on the solve button
+     * Overwrites the model with a solved model
+     * Calls the backtracker to solve the puzzle, within the time limit if
+     * one is set.  If it gives up or there is no solution, the model is
+     * overwritten with the deepest partial board it reached instead.
+     * A safe already in the solution cache, if there is one, is not
+     * searched at all.
+     * @param filename String for the name of the file
+     * @throws FileNotFoundException if the file is not found
+     */
+    public void solve(String filename) throws FileNotFoundException {
+        SafeFile safe = SafeFile.read(filename);
+        createModel(safe);
+        Optional<SolveResult> cached = this.solutionCache == null ?
+                Optional.empty() : this.solutionCache.get(safe);
+        if (cached.isPresent()) {
+            this.lastSolve = cached.get();
+        } else {
+            Configuration init = this.solverMode.initial(safe);
+            Backtracker bt = new Backtracker(true);
+            SolveRequest request = new SolveRequest(init);
+            if (this.solveTimeLimit > 0) {
+                request.setTimeLimit(this.solveTimeLimit);
+            }
+            this.solveCancellation = new CancellationToken();
+            request.setCancellation(this.solveCancellation);
+            this.lastSolve = bt.solve(request);
+            this.solveCancellation = null;
+            if (this.solutionCache != null) {
+                this.solutionCache.put(safe, this.lastSolve);
+            }
+        }
+        ModelData.Commands outcome = this.lastSolve.getStatus() == SolveResult.Status.SOLVED ?
+                ModelData.Commands.SOLVE : ModelData.Commands.ERROR_SOLVE;
+        // copy the board straight off the search's snapshot, then tell the
+        // observers once that the whole board has changed
+        BoardSnapshot board = this.lastSolve.getDeepest().snapshot();
+        for (int r = 0; r < this.row; r++) {
+            for (int c = 0; c < this.col; c++) {
+                set(r * this.col + c, board.getSymbol(r, c), outcome);
+            }
+        }
+        recount(outcome);
+        notifyObservers(this.model[0][0]);
+    }
+
+    /**
+     * Called by the view to handle adding, removing, and verifying commands
+     * Checks if the coordinates are valid
+     * @param command String[] representing the user input
+     */
+    public void command(String[] command) {
+        boolean flag = false;
+        String[] a = command[0].split("");
+        if (command.length != 3 && command.length != 1) {
+            notifyObservers(null);
+        } else if (command.length == 3) {
+            int r = Integer.parseInt(command[1]);
+            int c = Integer.parseInt(command[2]);
+            boolean valid = isCoordValid(r, c);
+            if (!valid) {
+                notifyObservers(null);
+                flag = true;
+            }
+            if (!flag) {
+                switch (a[0]) {
+                    case "a":
+                        add(command);
+                        break;
+                    case "r":
+                        remove(command);
+                        break;
+                }
+            }
+        } else {
+            switch (a[0]) {
+                case "v":
+                    verify();
+                    break;
+                case "h":
+                    String help = this.model[0][0].getVal();
+                    this.model[0][0] = new ModelData(0, 0, help, ModelData.Commands.HELP);
+                    notifyObservers(this.model[0][0]);
+                    break;
+                case "u":
+                    undo();
+                    break;
+                case "r":
+                    if (command[0].equals("redo")) {
+                        redo();
+                    }
+                    break;
+                case "d":
+                    String display = this.model[0][0].getVal();
+                    this.model[0][0] = new ModelData(0, 0, display, ModelData.Commands.DISPLAY);
+                    notifyObservers(this.model[0][0]);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Command to add a laser at a specified coordinate
+     * Adds beams in four cardinal directions within regulations
+     * @param a String[] representing add command
+     */
+    public void add(String[] a) {
+        int row = Integer.parseInt(a[1]);
+        int col = Integer.parseInt(a[2]);
+        String value = this.model[row][col].getVal();
+        char t = this.cells[row * this.col + col];
+        if (t == '*' || t == '.') {
+            set(row * this.col + col, "L", ModelData.Commands.ADD);
+            shine(row, col, 1, ModelData.Commands.ADD);
+            touch(row, col, 1);
+            track(row * this.col + col);
+            record(row * this.col + col, 1);
+            notifyObservers(this.model[row][col]);
+        }
+        else{
+            this.model[row][col] = new ModelData(row, col, value, ModelData.Commands.ERROR_ADD);
+            notifyObservers(this.model[row][col]);
+        }
+    }
+
+    /**
+     * Command to remove a laser at a specified coordinate
+     * Removes beams in four cardinal directions within regulations
+     * @param a String[] representing remove command
+     */
+    public void remove(String[] a) {
+        int row = Integer.parseInt(a[1]);
+        int col = Integer.parseInt(a[2]);
+        String value = this.model[row][col].getVal();
+        if (this.cells[row * this.col + col] == 'L') {
+            // the cell may still be lit by another laser in its row or column
+            boolean lit = this.lit[row * this.col + col] > 0;
+            set(row * this.col + col, lit ? "*" : ".", ModelData.Commands.REMOVE);
+            shine(row, col, -1, ModelData.Commands.REMOVE);
+            touch(row, col, -1);
+            track(row * this.col + col);
+            record(row * this.col + col, -1);
+            notifyObservers(this.model[row][col]);
+        } else {
+            this.model[row][col] = new ModelData(row, col, value, ModelData.Commands.ERROR_REMOVE);
+            notifyObservers(this.model[row][col]);
+        }
+    }
+
+    /**
+     * Turns the beams of a laser on or off.  Each beam runs from the laser
+     * to the next wall, pillar or edge, and every cell on the way counts
+     * the lasers lighting it, so only the cells whose count goes from
+     * zero to one, or back to zero, change what they show.  Another laser
+     * in the way does not stop the count, since it lights the same cells.
+     * The length of each beam is left in reach.
+     * @param row int for the laser row coordinate
+     * @param col int for the laser col coordinate
+     * @param delta 1 when the laser is added, -1 when it is removed
+     * @param command the command the changed cells are marked with
+     */
+    private void shine(int row, int col, int delta, ModelData.Commands command) {
+        for (int i = 0; i < DIRECTIONS.length; i++) {
+            int[] d = DIRECTIONS[i];
+            int r = row + d[0];
+            int c = col + d[1];
+            int n = 0;
+            while (isCoordValid(r, c)) {
+                char t = this.cells[r * this.col + c];
+                if (t != '.' && t != '*' && t != 'L') {
+                    break;
+                }
+                light(r, c, delta, command);
+                n++;
+                r += d[0];
+                c += d[1];
+            }
+            this.reach[i] = n;
+        }
+    }
+
+    /**
+     * Counts one more or one less laser lighting a cell on a beam, and
+     * shows the cell lit or dark if that changed
+     * @param r int for the row of the cell
+     * @param c int for the column of the cell
+     * @param delta 1 when a laser is added, -1 when it is removed
+     * @param command the command the cell is marked with if it changes
+     */
+    private void light(int r, int c, int delta, ModelData.Commands command) {
+        int k = r * this.col + c;
+        char t = this.cells[k];
+        this.lit[k] += delta;
+        if (t != 'L' && (this.lit[k] > 0) != (t == '*')) {
+            set(k, t == '*' ? "." : "*", command);
+        }
+        track(k);
+    }
+
+    /**
+     * Undoes the last add or remove that has not been undone.  Only the
+     * laser cell and the cells its beams ran over are touched, so this
+     * costs no more than the add or remove did.  Loading, restarting or
+     * solving the safe clears the history, since they replace the whole
+     * board.
+     */
+    public void undo() {
+        if (!canUndo()) {
+            String value = this.model[0][0].getVal();
+            this.model[0][0] = new ModelData(0, 0, value, ModelData.Commands.ERROR_UNDO);
+            notifyObservers(this.model[0][0]);
+            return;
+        }
+        this.historyDone--;
+        int at = slot(this.historyDone);
+        replay(at, -this.history[at + 1], ModelData.Commands.UNDO);
+    }
+
+    /**
+     * Redoes the last add or remove that was undone, as long as nothing
+     * has been added or removed since
+     */
+    public void redo() {
+        if (!canRedo()) {
+            String value = this.model[0][0].getVal();
+            this.model[0][0] = new ModelData(0, 0, value, ModelData.Commands.ERROR_REDO);
+            notifyObservers(this.model[0][0]);
+            return;
+        }
+        int at = slot(this.historyDone);
+        this.historyDone++;
+        replay(at, this.history[at + 1], ModelData.Commands.REDO);
+    }
+
+    /**
+     * Puts a laser in the history.  Anything undone is forgotten, and when
+     * the ring is full the oldest entry makes room.
+     * @param k row-major index of the laser
+     * @param delta 1 if it was added, -1 if it was removed
+     */
+    private void record(int k, int delta) {
+        if (this.historyDepth == 0) {
+            return;
+        }
+        this.historySize = this.historyDone;
+        if (this.historySize == this.historyDepth) {
+            this.historyStart = (this.historyStart + 1) % this.historyDepth;
+            this.historySize--;
+            this.historyDone--;
+        }
+        int at = slot(this.historySize);
+        this.history[at] = k;
+        this.history[at + 1] = delta;
+        System.arraycopy(this.reach, 0, this.history, at + 2, this.reach.length);
+        this.historySize++;
+        this.historyDone++;
+    }
+
+    /**
+     * Adds or removes the laser of a history entry, lighting or darkening
+     * only the beam cells the entry recorded.  The board is back as it was
+     * when the entry was made, so those are the cells the beams reach.
+     * @param at index of the entry in the history array
+     * @param delta 1 to add the laser, -1 to remove it
+     * @param command the command the changed cells are marked with
+     */
+    private void replay(int at, int delta, ModelData.Commands command) {
+        int k = this.history[at];
+        int row = k / this.col;
+        int col = k % this.col;
+        set(k, delta > 0 ? "L" : this.lit[k] > 0 ? "*" : ".", command);
+        for (int i = 0; i < DIRECTIONS.length; i++) {
+            int[] d = DIRECTIONS[i];
+            for (int n = 1; n <= this.history[at + 2 + i]; n++) {
+                light(row + n * d[0], col + n * d[1], delta, command);
+            }
+        }
+        touch(row, col, delta);
+        track(k);
+        notifyObservers(this.model[row][col]);
+    }
+
+    /**
+     * Finds an entry in the history ring
+     * @param i int for the age of the entry, 0 for the oldest
+     * @return index of its first int in the history array
+     */
+    private int slot(int i) {
+        return (this.historyStart + i) % this.historyDepth * ENTRY;
+    }
+
+    /**
+     * Forgets every add and remove
+     */
+    private void clearHistory() {
+        this.historyStart = 0;
+        this.historySize = 0;
+        this.historyDone = 0;
+    }
+
+    /**
+     * Counts a laser being added next to, or removed from next to, the
+     * cells around it, and re-checks the pillars among them
+     * @param row int for the laser row coordinate
+     * @param col int for the laser col coordinate
+     * @param delta 1 when the laser is added, -1 when it is removed
+     */
+    private void touch(int row, int col, int delta) {
+        for (int[] d : DIRECTIONS) {
+            if (isCoordValid(row + d[0], col + d[1])) {
+                int k = (row + d[0]) * this.col + col + d[1];
+                this.adjacent[k] += delta;
+                track(k);
+            }
+        }
+    }
+
+    /**
+     * Files a cell under the rule it breaks, if any, once its symbol or
+     * counts have changed: an empty cell no laser lights, a laser another
+     * laser can see, or a pillar with the wrong number of lasers around it
+     * @param k row-major index of the cell
+     */
+    private void track(int k) {
+        char t = this.cells[k];
+        if (t == '.') {
+            this.dark.add(k);
+        } else {
+            this.dark.remove(k);
+        }
+        if (t == 'L' && this.lit[k] > 0) {
+            this.seen.add(k);
+        } else {
+            this.seen.remove(k);
+        }
+        if (t >= '0' && t <= '4' && this.adjacent[k] != t - '0') {
+            this.unmet.add(k);
+        } else {
+            this.unmet.remove(k);
+        }
+    }
+
+    /**
+     * Command to verify the game board and all the Tile components
+     * to ensure that all rules have been met.  The cells breaking a rule
+     * are kept up to date by add and remove, so this only has to pick
+     * the first of them in row-major order, the cell a scan of the board
+     * would stop at.
+     */
+    public void verify() {
+        int first = Integer.MAX_VALUE;
+        for (TreeSet<Integer> broken : List.of(this.dark, this.seen, this.unmet)) {
+            if (!broken.isEmpty()) {
+                first = Math.min(first, broken.first());
+            }
+        }
+        if (first != Integer.MAX_VALUE) {
+            int i = first / this.col;
+            int j = first % this.col;
+            String t = this.model[i][j].getVal();
+            this.model[i][j] = new ModelData(i, j, t, ModelData.Commands.ERROR_VERIFY);
+            notifyObservers(this.model[i][j]);
+        } else {
+            String value = this.model[this.row-1][this.col-1].getVal();
+            this.model[this.row-1][this.col-1] = new ModelData(this.row-1, this.col-1, value, ModelData.Commands.VERIFY);
+            notifyObservers(this.model[this.row-1][this.col-1]);
+        }
+    }
+
+    /**
+     * Represents the game board in an appealing manner
+     * @return the board string
+     */
+    @Override
+    public String toString() {
+        StringBuilder str = new StringBuilder();
+        // build the top row of indices
+        str.append("  ");
+        for (int col=0; col<this.col; ++col) {
+            str.append(col);
+        }
+        str.append("\n");
+        // build each row of the actual board
+        for (int row=0; row<this.row; ++row) {
+            str.append(row).append("|");
+            // build the columns of the board
+            for (int col=0; col<this.col; ++col) {
+                str.append(this.model[row][col].getVal());
+            }
+            str.append("\n");
+        }
+        return str.toString();
+    }
+}
@@ -24,6 +24,12 @@ public class ModelData {
         RESET,
         LOAD,
         SOLVE,
+        ERROR_SOLVE,
+        UNDO,
+        ERROR_UNDO,
+        REDO,
+        ERROR_REDO,
+        BATCH,
     }
 
     /** row coordinate of the tile */
@@ -34,13 +40,28 @@ public class ModelData {
     private String val;
     /** state from the Commands enum */
     private Commands command;
+    /** the cells the command changed, when sent to the observers */
+    private ChangeSet changes;
 
     /** Creates a new instance of a tile */
     public ModelData(int row, int col, String val, Commands command) {
+        this(row, col, val, command, ChangeSet.EMPTY);
+    }
+
+    /**
+     * Creates a new instance of a tile, along with the cells that changed
+     * @param row row coordinate of the tile
+     * @param col column coordinate of the tile
+     * @param val the value of the tile
+     * @param command state from the Commands enum
+     * @param changes the cells the command changed
+     */
+    public ModelData(int row, int col, String val, Commands command, ChangeSet changes) {
         this.row = row;
         this.col = col;
         this.val = val;
         this.command = command;
+        this.changes = changes;
     }
 
     /**
@@ -74,6 +95,14 @@ public class ModelData {
     public Commands getCommand() {
         return this.command;
     }
+
+    /**
+     * Gets the cells that changed since the observers were last notified
+     * @return the changes, empty if no cell changed
+     */
+    public ChangeSet getChanges() {
+        return this.changes;
+    }
 }
 
 
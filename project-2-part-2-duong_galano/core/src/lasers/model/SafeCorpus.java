@@ -0,0 +1,263 @@
+package lasers.model;
+
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A read-only collection of safes packed into one binary file.  The
+ * file is mapped into memory when it is opened, and a safe is only
+ * decoded when it is asked for by index.
+ *
+ * The layout, with every number big-endian:
+ * <pre>
+ * header   "SAFE"  int version  int count  int index offset
+ * safes    short rows  short columns  packed cells, for each safe
+ * index    int offset of each safe, then the end of the last safe
+ * </pre>
+ * A packed cell takes 4 bits, two cells to a byte with the first cell
+ * in the high half, in row-major order.  The codes are the positions
+ * of the symbols in ".X01234", so an empty cell is 0 and a wall is 1.
+ * The index is written last, so that the safes can be streamed in
+ * without knowing how many there will be.  Offsets are ints, so a
+ * corpus can hold at most 2 GB of safes, about six million 20x36
+ * boards.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+public class SafeCorpus {
+    /** the first four bytes of every corpus, "SAFE" */
+    private static final int MAGIC = 0x53414645;
+    /** the layout version this class reads and writes */
+    private static final int VERSION = 1;
+    /** bytes of the header */
+    private static final int HEADER = 16;
+    /** the symbol of each 4-bit code */
+    private static final String CODES = ".X01234";
+
+    /** name of the file, for error messages */
+    private final String source;
+    /** the whole file */
+    private final ByteBuffer buffer;
+    /** number of safes */
+    private final int size;
+    /** byte offset of the index */
+    private final int index;
+
+    /**
+     * Creates a corpus over the bytes of a corpus file
+     * @param source String naming the file, for error messages
+     * @param buffer the whole file
+     * @throws IllegalArgumentException if the bytes are not a corpus
+     */
+    public SafeCorpus(String source, ByteBuffer buffer) {
+        this.source = source;
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException(source + " is not a safe corpus");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException(source + " is corpus version " + buffer.getInt(4) +
+                    ", expected " + VERSION);
+        }
+        this.size = buffer.getInt(8);
+        this.index = buffer.getInt(12);
+        if (this.size < 0 || this.index < HEADER ||
+                (long) this.index + 4L * (this.size + 1) > buffer.limit()) {
+            throw new IllegalArgumentException(source + " is truncated");
+        }
+    }
+
+    /**
+     * Maps a corpus file into memory
+     * @param filename String for the name of the file
+     * @return the corpus
+     * @throws FileNotFoundException if the file does not exist
+     * @throws IllegalArgumentException if the file is not a corpus
+     */
+    public static SafeCorpus open(String filename) throws FileNotFoundException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(filename + " is larger than 2 GB");
+            }
+            // the mapping stays valid after the channel is closed
+            return new SafeCorpus(filename, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException(filename + " (No such file or directory)");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Whether a file starts like a corpus, so that callers taking either
+     * a corpus or a text safe can tell them apart
+     * @param filename String for the name of the file
+     * @return true if the file starts with the corpus magic number
+     */
+    public static boolean isCorpus(String filename) {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // keep reading until the magic number is in
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Gets the number of safes
+     * @return int for the number of safes
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Decodes one safe.  Only the bytes of that safe are read, so any
+     * safe can be fetched in constant time, from any thread.
+     * @param i int for the index of the safe
+     * @return the safe
+     * @throws IndexOutOfBoundsException if there is no such safe
+     */
+    public SafeFile get(int i) {
+        if (i < 0 || i >= this.size) {
+            throw new IndexOutOfBoundsException("safe " + i + " of " + this.size);
+        }
+        int at = this.buffer.getInt(this.index + 4 * i);
+        int end = this.buffer.getInt(this.index + 4 * (i + 1));
+        int row = Short.toUnsignedInt(this.buffer.getShort(at));
+        int col = Short.toUnsignedInt(this.buffer.getShort(at + 2));
+        int n = row * col;
+        if (end - at != 4 + (n + 1) / 2) {
+            throw new IllegalArgumentException(this.source + " has a corrupt entry for safe " + i);
+        }
+        byte[] cells = new byte[n];
+        for (int k = 0; k < n; k++) {
+            int b = this.buffer.get(at + 4 + k / 2);
+            int code = (k & 1) == 0 ? (b >> 4) & 0xf : b & 0xf;
+            if (code >= CODES.length()) {
+                throw new IllegalArgumentException(this.source + " has a bad cell in safe " + i);
+            }
+            cells[k] = (byte) CODES.charAt(code);
+        }
+        return new SafeFile(row, col, cells);
+    }
+
+    /**
+     * Writes safes one at a time into a new corpus file.  The index is
+     * kept in memory, 4 bytes per safe, until the writer is closed.
+     */
+    public static class Writer implements Closeable {
+        /** the file being written */
+        private final FileChannel channel;
+        /** safes are packed here before they are written */
+        private ByteBuffer pending;
+        /** offset of each safe written so far */
+        private int[] offsets;
+        /** number of safes written so far */
+        private int count;
+        /** offset the next safe will be written at */
+        private long end;
+
+        /**
+         * Creates the corpus file, replacing any file of that name
+         * @param filename String for the name of the file
+         * @throws IOException if the file cannot be created
+         */
+        public Writer(String filename) throws IOException {
+            this.channel = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            this.pending = ByteBuffer.allocate(1 << 16);
+            this.offsets = new int[1024];
+            this.count = 0;
+            this.end = HEADER;
+            this.channel.position(HEADER);
+        }
+
+        /**
+         * Packs a safe onto the end of the corpus
+         * @param safe the safe
+         * @return int for its index in the corpus
+         * @throws IOException if the file cannot be written
+         */
+        public int add(SafeFile safe) throws IOException {
+            if (safe.getRow() > 0xffff || safe.getCol() > 0xffff) {
+                throw new IllegalArgumentException("a " + safe.getRow() + "x" + safe.getCol() +
+                        " safe does not fit in a corpus");
+            }
+            int n = safe.getRow() * safe.getCol();
+            int bytes = 4 + (n + 1) / 2;
+            if (this.end + bytes + 4L * (this.count + 2) > Integer.MAX_VALUE) {
+                throw new IllegalStateException("the corpus would be larger than 2 GB");
+            }
+            if (this.pending.remaining() < bytes) {
+                flush();
+                if (this.pending.capacity() < bytes) {
+                    this.pending = ByteBuffer.allocate(bytes);
+                }
+            }
+            this.pending.putShort((short) safe.getRow());
+            this.pending.putShort((short) safe.getCol());
+            for (int k = 0; k < n; k += 2) {
+                int high = CODES.indexOf(safe.getCell(k));
+                int low = k + 1 < n ? CODES.indexOf(safe.getCell(k + 1)) : 0;
+                this.pending.put((byte) (high << 4 | low));
+            }
+            if (this.count == this.offsets.length) {
+                this.offsets = Arrays.copyOf(this.offsets, 2 * this.count);
+            }
+            this.offsets[this.count] = (int) this.end;
+            this.end += bytes;
+            return this.count++;
+        }
+
+        /**
+         * Writes the packed safes still in memory to the file
+         * @throws IOException if the file cannot be written
+         */
+        private void flush() throws IOException {
+            this.pending.flip();
+            while (this.pending.hasRemaining()) {
+                this.channel.write(this.pending);
+            }
+            this.pending.clear();
+        }
+
+        /**
+         * Writes the index and the header and closes the file
+         * @throws IOException if the file cannot be written
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+                ByteBuffer index = ByteBuffer.allocate(4 * (this.count + 1));
+                for (int i = 0; i < this.count; i++) {
+                    index.putInt(this.offsets[i]);
+                }
+                index.putInt((int) this.end).flip();
+                while (index.hasRemaining()) {
+                    this.channel.write(index, this.end + index.position());
+                }
+                ByteBuffer header = ByteBuffer.allocate(HEADER);
+                header.putInt(MAGIC).putInt(VERSION).putInt(this.count).putInt((int) this.end).flip();
+                while (header.hasRemaining()) {
+                    this.channel.write(header, header.position());
+                }
+            } finally {
+                this.channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package lasers.model;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The cells of a safe as read from a safe file.  The file starts with a
+ * line holding the number of rows and columns, followed by one line per
+ * row with one symbol per cell, separated by spaces:
+ * <pre>
+ * 4 4
+ * . . . 0
+ * . X . .
+ * . . 1 .
+ * 1 . . .
+ * </pre>
+ * Anything after the last row, such as a worked solution, is ignored.
+ *
+ * The file is read through a FileChannel, mapped into memory when it is
+ * large, and decoded byte by byte straight into a row-major array of
+ * symbols, without building a String per line or per cell.  A file that
+ * is not in this format is reported with a SafeFormatException giving
+ * the line and column of the problem.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+public class SafeFile {
+    /** files at least this many bytes long are mapped instead of read */
+    private static final int MAP_THRESHOLD = 1 << 16;
+    /** a shared String for every cell symbol, indexed by the symbol */
+    private static final String[] SYMBOLS = new String[128];
+
+    static {
+        for (char symbol : ".X01234".toCharArray()) {
+            SYMBOLS[symbol] = String.valueOf(symbol);
+        }
+    }
+
+    /** number of rows of the board */
+    private final int row;
+    /** number of columns of the board */
+    private final int col;
+    /** the symbol of each cell, in row-major order */
+    private final byte[] cells;
+
+    /**
+     * Creates a safe from its decoded cells
+     * @param row number of rows of the board
+     * @param col number of columns of the board
+     * @param cells the symbol of each cell, in row-major order
+     */
+    SafeFile(int row, int col, byte[] cells) {
+        this.row = row;
+        this.col = col;
+        this.cells = cells;
+    }
+
+    /**
+     * Reads and parses a safe file
+     * @param filename String for the name of the file
+     * @return the safe
+     * @throws FileNotFoundException if the file does not exist
+     * @throws SafeFormatException if the file is not a safe
+     */
+    public static SafeFile read(String filename) throws FileNotFoundException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer buffer;
+            if (size >= MAP_THRESHOLD) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } else {
+                buffer = ByteBuffer.allocate((int) size);
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // keep reading until the whole file is in
+                }
+                buffer.flip();
+            }
+            return parse(filename, buffer);
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException(filename + " (No such file or directory)");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Parses a safe from the bytes of a safe file
+     * @param source String naming the file, for error messages
+     * @param buffer the bytes from its position to its limit
+     * @return the safe
+     * @throws SafeFormatException if the bytes are not a safe
+     */
+    public static SafeFile parse(String source, ByteBuffer buffer) {
+        return new Parser(source, buffer).parse();
+    }
+
+    /**
+     * Gets the number of rows of the board
+     * @return int for the number of rows
+     */
+    public int getRow() {
+        return this.row;
+    }
+
+    /**
+     * Gets the number of columns of the board
+     * @return int for the number of columns
+     */
+    public int getCol() {
+        return this.col;
+    }
+
+    /**
+     * Gets the symbol of a cell
+     * @param k row-major index of the cell
+     * @return one of . X 0 1 2 3 4
+     */
+    public char getCell(int k) {
+        return (char) this.cells[k];
+    }
+
+    /**
+     * Gets the symbol of a cell
+     * @param row int for the row of the cell
+     * @param col int for the column of the cell
+     * @return one of . X 0 1 2 3 4
+     */
+    public char getCell(int row, int col) {
+        return (char) this.cells[row * this.col + col];
+    }
+
+    /**
+     * Gets the symbol of a cell as a String.  The same String is returned
+     * for every cell with that symbol.
+     * @param row int for the row of the cell
+     * @param col int for the column of the cell
+     * @return one of . X 0 1 2 3 4
+     */
+    public String getSymbol(int row, int col) {
+        return SYMBOLS[this.cells[row * this.col + col]];
+    }
+
+    /**
+     * Whether a character is one of the symbols a safe file may hold
+     * @param symbol the character
+     * @return true if it is . X or a pillar number
+     */
+    public static boolean isSymbol(int symbol) {
+        return symbol >= 0 && symbol < SYMBOLS.length && SYMBOLS[symbol] != null;
+    }
+
+    /**
+     * A single pass over the bytes of a safe file that keeps track of the
+     * line and column it is at.
+     */
+    private static class Parser {
+        /** name of the file, for error messages */
+        private final String source;
+        /** the bytes of the file */
+        private final ByteBuffer buffer;
+        /** index of the next byte */
+        private int pos;
+        /** line of the next byte, counted from 1 */
+        private int line;
+        /** index of the first byte of the current line */
+        private int lineStart;
+
+        /**
+         * Creates the parser
+         * @param source String naming the file
+         * @param buffer the bytes from its position to its limit
+         */
+        Parser(String source, ByteBuffer buffer) {
+            this.source = source;
+            this.buffer = buffer;
+            this.pos = buffer.position();
+            this.line = 1;
+            this.lineStart = this.pos;
+        }
+
+        /**
+         * Parses the header and then every row
+         * @return the safe
+         */
+        SafeFile parse() {
+            int row = number("the number of rows");
+            skipSpaces();
+            int col = number("the number of columns");
+            // every cell takes at least a byte, so a board larger than the
+            // rest of the file cannot be in it, and is not allocated
+            if ((long) row * col > this.buffer.limit() - this.pos) {
+                throw error("a " + row + "x" + col + " board does not fit in the rest of the file");
+            }
+            endOfLine("the end of the header");
+            byte[] cells = new byte[row * col];
+            for (int i = 0; i < row; i++) {
+                if (atEnd()) {
+                    throw error("expected " + row + " rows but found " + i);
+                }
+                for (int j = 0; j < col; j++) {
+                    skipSpaces();
+                    if (atEnd() || atNewline()) {
+                        throw error("expected " + col + " cells but found " + j);
+                    }
+                    int symbol = peek();
+                    if (!isSymbol(symbol)) {
+                        throw error("expected one of . X 0 1 2 3 4 but found " + describe(symbol));
+                    }
+                    this.pos++;
+                    if (!atEnd() && !atNewline() && peek() != ' ' && peek() != '\t') {
+                        throw error("expected a space after the cell but found " + describe(peek()));
+                    }
+                    cells[i * col + j] = (byte) symbol;
+                }
+                endOfLine("only " + col + " cells");
+            }
+            return new SafeFile(row, col, cells);
+        }
+
+        /**
+         * Reads a positive decimal number
+         * @param what what the number is, for the error message
+         * @return the number
+         */
+        private int number(String what) {
+            skipSpaces();
+            if (atEnd() || peek() < '0' || peek() > '9') {
+                throw error("expected " + what + " but found " + (atEnd() ? "the end of the file" : describe(peek())));
+            }
+            int start = this.pos;
+            long value = 0;
+            while (!atEnd() && peek() >= '0' && peek() <= '9') {
+                value = value * 10 + (peek() - '0');
+                if (value > Integer.MAX_VALUE) {
+                    throw error(what + " is too large");
+                }
+                this.pos++;
+            }
+            if (value == 0) {
+                this.pos = start;
+                throw error(what + " must be positive");
+            }
+            return (int) value;
+        }
+
+        /**
+         * Skips trailing spaces and the end of the line
+         * @param expected what should have come instead, for the error message
+         */
+        private void endOfLine(String expected) {
+            skipSpaces();
+            if (atEnd()) {
+                return;
+            }
+            if (!atNewline()) {
+                throw error("expected " + expected + " but found " + describe(peek()));
+            }
+            if (peek() == '\r') {
+                this.pos++;
+            }
+            this.pos++;
+            this.line++;
+            this.lineStart = this.pos;
+        }
+
+        /**
+         * Skips spaces and tabs
+         */
+        private void skipSpaces() {
+            while (!atEnd() && (peek() == ' ' || peek() == '\t')) {
+                this.pos++;
+            }
+        }
+
+        /**
+         * Whether every byte has been read
+         * @return true at the end of the file
+         */
+        private boolean atEnd() {
+            return this.pos >= this.buffer.limit();
+        }
+
+        /**
+         * Whether the next byte ends the line
+         * @return true at a \n or \r\n
+         */
+        private boolean atNewline() {
+            return peek() == '\n' || (peek() == '\r' && this.pos + 1 < this.buffer.limit() &&
+                    this.buffer.get(this.pos + 1) == '\n');
+        }
+
+        /**
+         * Looks at the next byte
+         * @return the byte, as an unsigned value
+         */
+        private int peek() {
+            return this.buffer.get(this.pos) & 0xff;
+        }
+
+        /**
+         * Describes a byte for an error message
+         * @param b the byte
+         * @return the character in quotes, or its code if it is not printable
+         */
+        private static String describe(int b) {
+            if (b == '\n' || b == '\r') {
+                return "the end of the line";
+            }
+            return b > ' ' && b < 127 ? "'" + (char) b + "'" : String.format("byte 0x%02x", b);
+        }
+
+        /**
+         * Creates the exception for a problem at the next byte
+         * @param message String saying what is wrong
+         * @return the exception
+         */
+        private SafeFormatException error(String message) {
+            return new SafeFormatException(this.source, this.line, this.pos - this.lineStart + 1, message);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package lasers.model;
+
+/**
+ * Thrown when a safe file is not in the safe format.  The message and
+ * the getters give the line and column, both counted from 1, of the
+ * first thing that is wrong.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+public class SafeFormatException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+
+    /** line of the error */
+    private final int line;
+    /** column of the error */
+    private final int column;
+
+    /**
+     * Creates the exception
+     * @param source String naming the file
+     * @param line int for the line of the error
+     * @param column int for the column of the error
+     * @param message String saying what is wrong
+     */
+    public SafeFormatException(String source, int line, int column, String message) {
+        super(source + ":" + line + ":" + column + ": " + message);
+        this.line = line;
+        this.column = column;
+    }
+
+    /**
+     * Gets the line of the error
+     * @return line number, counted from 1
+     */
+    public int getLine() {
+        return this.line;
+    }
+
+    /**
+     * Gets the column of the error
+     * @return column number, counted from 1
+     */
+    public int getColumn() {
+        return this.column;
+    }
+}
@@ -58,6 +58,7 @@ public class ControllerPTUI  {
                 case "h":
                 case "a":
                 case "r":
+                case "u":
                 case "v":
                     this.model.command(args);
                     break;
@@ -75,6 +75,21 @@ public class LasersPTUI implements Observer<LasersModel, ModelData> {
             } else if (command == ModelData.Commands.ERROR_VERIFY) {
                 System.out.println("Error verifying at: (" + row + ", " + col + ")");
                 System.out.println(this.getModel());
+            } else if (command == ModelData.Commands.UNDO) {
+                System.out.println("Undone at: (" + row + ", " + col + ")");
+                System.out.println(this.getModel());
+            } else if (command == ModelData.Commands.ERROR_UNDO) {
+                System.out.println("Nothing to undo");
+                System.out.println(this.getModel());
+            } else if (command == ModelData.Commands.REDO) {
+                System.out.println("Redone at: (" + row + ", " + col + ")");
+                System.out.println(this.getModel());
+            } else if (command == ModelData.Commands.ERROR_REDO) {
+                System.out.println("Nothing to redo");
+                System.out.println(this.getModel());
+            } else if (command == ModelData.Commands.BATCH) {
+                System.out.println("Cells changed: " + data.getChanges().size());
+                System.out.println(this.getModel());
             } else if (command == ModelData.Commands.DISPLAY) {
                 System.out.println(this.getModel());
             } else if (command == ModelData.Commands.HELP) {
@@ -83,6 +98,8 @@ public class LasersPTUI implements Observer<LasersModel, ModelData> {
                 System.out.println("h|help: Print this help message");
                 System.out.println("q|quit: Exit program");
                 System.out.println("r|remove r c: Remove laser from (r,c)");
+                System.out.println("redo: Redo the last undone add or remove");
+                System.out.println("u|undo: Undo the last add or remove");
                 System.out.println("v|verify: Verify safe correctness");
             }
         }
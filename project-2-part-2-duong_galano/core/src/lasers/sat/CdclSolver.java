@@ -0,0 +1,450 @@
+package lasers.sat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A small conflict-driven clause learning SAT solver.  Clauses are given
+ * in DIMACS form (variables numbered from 1, a negative number is a
+ * negated variable).  The solver uses two watched literals per clause for
+ * unit propagation, learns a first-UIP clause from every conflict, picks
+ * decision variables by activity (bumped for the variables in each
+ * conflict) with saved phases, and restarts on a Luby schedule.
+ *
+ * Internally literal 2*(v-1) is variable v and 2*(v-1)+1 its negation.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+public class CdclSolver {
+    /** conflicts in one unit of the Luby restart schedule */
+    private static final int RESTART_UNIT = 100;
+    /** how much the activity of the other variables decays per conflict */
+    private static final double ACTIVITY_DECAY = 0.95;
+
+    /** number of variables */
+    private final int numVars;
+    /** all clauses, original and learnt; the first two literals are watched */
+    private final List<int[]> clauses;
+    /** for each literal, the clauses watching it */
+    private final IntVec[] watches;
+    /** for each variable, 1 if true, -1 if false, 0 if unassigned */
+    private final byte[] value;
+    /** decision level each variable was assigned at */
+    private final int[] level;
+    /** clause that implied each variable, or -1 for decisions */
+    private final int[] reason;
+    /** phase each variable last had, reused when it is decided again */
+    private final boolean[] phase;
+    /** branching activity of each variable */
+    private final double[] activity;
+    /** scratch marks used while analyzing a conflict */
+    private final boolean[] seen;
+    /** assigned literals in assignment order */
+    private final int[] trail;
+    /** number of literals on the trail */
+    private int trailSize;
+    /** index of the next trail literal to propagate */
+    private int qhead;
+    /** trail size at the start of each decision level */
+    private final IntVec trailLim;
+    /** amount the next bumped variable's activity grows by */
+    private double activityInc;
+    /** false once the clauses are known to be unsatisfiable */
+    private boolean ok;
+    /** true if the last search ran out of time */
+    private boolean expired;
+
+    /**
+     * Creates a solver with no clauses
+     * @param numVars number of variables
+     */
+    public CdclSolver(int numVars) {
+        this.numVars = numVars;
+        this.clauses = new ArrayList<>();
+        this.watches = new IntVec[2 * numVars];
+        for (int i = 0; i < this.watches.length; i++) {
+            this.watches[i] = new IntVec();
+        }
+        this.value = new byte[numVars];
+        this.level = new int[numVars];
+        this.reason = new int[numVars];
+        Arrays.fill(this.reason, -1);
+        this.phase = new boolean[numVars];
+        this.activity = new double[numVars];
+        this.seen = new boolean[numVars];
+        this.trail = new int[numVars];
+        this.trailLim = new IntVec();
+        this.activityInc = 1.0;
+        this.ok = true;
+    }
+
+    /**
+     * Adds a clause before solving
+     * @param dimacs the clause's literals in DIMACS numbering
+     */
+    public void addClause(int[] dimacs) {
+        if (!this.ok) {
+            return;
+        }
+        IntVec lits = new IntVec();
+        for (int d : dimacs) {
+            int lit = toLit(d);
+            if (lits.contains(lit ^ 1) || litValue(lit) > 0) {
+                return; // always satisfied
+            }
+            if (!lits.contains(lit) && litValue(lit) == 0) {
+                lits.add(lit);
+            }
+        }
+        if (lits.size() == 0) {
+            this.ok = false;
+        } else if (lits.size() == 1) {
+            enqueue(lits.get(0), -1);
+        } else {
+            attach(lits.toArray());
+        }
+    }
+
+    /**
+     * Searches for a satisfying assignment
+     * @return the value of each variable, indexed from 1, or null if unsatisfiable
+     */
+    public boolean[] solve() {
+        return solve(Long.MAX_VALUE);
+    }
+
+    /**
+     * Searches for a satisfying assignment, giving up at a deadline.  The
+     * clock is read once per conflict, so a search that is still deciding
+     * without conflicts runs on until it finds a model.
+     * @param deadline time to give up at, in milliseconds since the epoch,
+     *                 or Long.MAX_VALUE for none
+     * @return the value of each variable, indexed from 1, or null if
+     *         unsatisfiable or out of time
+     */
+    public boolean[] solve(long deadline) {
+        this.expired = false;
+        if (!this.ok) {
+            return null;
+        }
+        int restart = 1;
+        int budget = luby(restart) * RESTART_UNIT;
+        while (true) {
+            int conflict = propagate();
+            if (conflict >= 0) {
+                if (decisionLevel() == 0) {
+                    this.ok = false;
+                    return null;
+                }
+                int[] learnt = analyze(conflict);
+                int backLevel = 0;
+                for (int i = 1; i < learnt.length; i++) {
+                    backLevel = Math.max(backLevel, this.level[learnt[i] >> 1]);
+                }
+                backtrack(backLevel);
+                if (learnt.length == 1) {
+                    enqueue(learnt[0], -1);
+                } else {
+                    enqueue(learnt[0], attach(learnt));
+                }
+                this.activityInc /= ACTIVITY_DECAY;
+                budget--;
+                if (deadline != Long.MAX_VALUE && System.currentTimeMillis() >= deadline) {
+                    backtrack(0);
+                    this.expired = true;
+                    return null;
+                }
+            } else if (budget <= 0) {
+                backtrack(0);
+                budget = luby(++restart) * RESTART_UNIT;
+            } else {
+                int v = pickBranchVariable();
+                if (v < 0) {
+                    boolean[] model = new boolean[this.numVars + 1];
+                    for (int i = 0; i < this.numVars; i++) {
+                        model[i + 1] = this.value[i] > 0;
+                    }
+                    return model;
+                }
+                this.trailLim.add(this.trailSize);
+                enqueue(2 * v + (this.phase[v] ? 0 : 1), -1);
+            }
+        }
+    }
+
+    /**
+     * Did the last search give up at its deadline rather than prove the
+     * clauses unsatisfiable?
+     * @return true if the last search ran out of time
+     */
+    public boolean hasExpired() {
+        return this.expired;
+    }
+
+    /**
+     * Converts a DIMACS literal to the internal numbering
+     * @param dimacs the literal in DIMACS numbering
+     * @return the internal literal
+     */
+    private static int toLit(int dimacs) {
+        return dimacs > 0 ? 2 * (dimacs - 1) : 2 * (-dimacs - 1) + 1;
+    }
+
+    /**
+     * The value of a literal under the current assignment
+     * @param lit the literal
+     * @return 1 if true, -1 if false, 0 if unassigned
+     */
+    private int litValue(int lit) {
+        int v = this.value[lit >> 1];
+        return (lit & 1) == 0 ? v : -v;
+    }
+
+    /**
+     * The current decision level
+     * @return number of decisions on the trail
+     */
+    private int decisionLevel() {
+        return this.trailLim.size();
+    }
+
+    /**
+     * Stores a clause and watches its first two literals
+     * @param lits the clause, with at least two literals
+     * @return the index of the clause
+     */
+    private int attach(int[] lits) {
+        int index = this.clauses.size();
+        this.clauses.add(lits);
+        this.watches[lits[0]].add(index);
+        this.watches[lits[1]].add(index);
+        return index;
+    }
+
+    /**
+     * Makes a literal true
+     * @param lit the literal
+     * @param from the clause that implied it, or -1 for a decision
+     */
+    private void enqueue(int lit, int from) {
+        int v = lit >> 1;
+        if (this.value[v] != 0) {
+            if (litValue(lit) < 0) {
+                this.ok = false;
+            }
+            return;
+        }
+        this.value[v] = (byte) ((lit & 1) == 0 ? 1 : -1);
+        this.level[v] = decisionLevel();
+        this.reason[v] = from;
+        this.trail[this.trailSize++] = lit;
+    }
+
+    /**
+     * Propagates every assignment not yet propagated through the watches
+     * @return the index of a conflicting clause, or -1 if there is none
+     */
+    private int propagate() {
+        while (this.qhead < this.trailSize) {
+            int falseLit = this.trail[this.qhead++] ^ 1;
+            IntVec ws = this.watches[falseLit];
+            int i = 0;
+            int j = 0;
+            while (i < ws.size()) {
+                int ci = ws.get(i++);
+                int[] c = this.clauses.get(ci);
+                // keep the false literal in the second watched slot
+                if (c[0] == falseLit) {
+                    c[0] = c[1];
+                    c[1] = falseLit;
+                }
+                if (litValue(c[0]) > 0) {
+                    ws.set(j++, ci);
+                    continue;
+                }
+                boolean moved = false;
+                for (int k = 2; k < c.length; k++) {
+                    if (litValue(c[k]) >= 0) {
+                        c[1] = c[k];
+                        c[k] = falseLit;
+                        this.watches[c[1]].add(ci);
+                        moved = true;
+                        break;
+                    }
+                }
+                if (moved) {
+                    continue;
+                }
+                ws.set(j++, ci);
+                if (litValue(c[0]) < 0) {
+                    while (i < ws.size()) {
+                        ws.set(j++, ws.get(i++));
+                    }
+                    ws.shrink(j);
+                    this.qhead = this.trailSize;
+                    return ci;
+                }
+                enqueue(c[0], ci);
+            }
+            ws.shrink(j);
+        }
+        return -1;
+    }
+
+    /**
+     * Works out the first-UIP clause learnt from a conflict
+     * @param conflict index of the conflicting clause
+     * @return the learnt clause, asserting literal first and a literal of
+     * the backjump level second
+     */
+    private int[] analyze(int conflict) {
+        IntVec learnt = new IntVec();
+        learnt.add(-1);
+        int pathCount = 0;
+        int p = -1;
+        int index = this.trailSize - 1;
+        do {
+            int[] c = this.clauses.get(conflict);
+            for (int k = p == -1 ? 0 : 1; k < c.length; k++) {
+                int v = c[k] >> 1;
+                if (!this.seen[v] && this.level[v] > 0) {
+                    bump(v);
+                    this.seen[v] = true;
+                    if (this.level[v] >= decisionLevel()) {
+                        pathCount++;
+                    } else {
+                        learnt.add(c[k]);
+                    }
+                }
+            }
+            while (!this.seen[this.trail[index] >> 1]) {
+                index--;
+            }
+            p = this.trail[index--];
+            conflict = this.reason[p >> 1];
+            this.seen[p >> 1] = false;
+            pathCount--;
+        } while (pathCount > 0);
+        learnt.set(0, p ^ 1);
+        int[] result = learnt.toArray();
+        int max = 1;
+        for (int i = 1; i < result.length; i++) {
+            this.seen[result[i] >> 1] = false;
+            if (this.level[result[i] >> 1] > this.level[result[max] >> 1]) {
+                max = i;
+            }
+        }
+        if (result.length > 1) {
+            int t = result[1];
+            result[1] = result[max];
+            result[max] = t;
+        }
+        return result;
+    }
+
+    /**
+     * Raises the branching activity of a variable involved in a conflict
+     * @param v the variable
+     */
+    private void bump(int v) {
+        this.activity[v] += this.activityInc;
+        if (this.activity[v] > 1e100) {
+            for (int i = 0; i < this.numVars; i++) {
+                this.activity[i] *= 1e-100;
+            }
+            this.activityInc *= 1e-100;
+        }
+    }
+
+    /**
+     * Undoes every assignment above a decision level
+     * @param target the decision level to go back to
+     */
+    private void backtrack(int target) {
+        if (decisionLevel() <= target) {
+            return;
+        }
+        int limit = this.trailLim.get(target);
+        for (int i = this.trailSize - 1; i >= limit; i--) {
+            int v = this.trail[i] >> 1;
+            this.phase[v] = this.value[v] > 0;
+            this.value[v] = 0;
+            this.reason[v] = -1;
+        }
+        this.trailSize = limit;
+        this.qhead = limit;
+        this.trailLim.shrink(target);
+    }
+
+    /**
+     * Picks the unassigned variable with the highest activity
+     * @return the variable, or -1 if every variable is assigned
+     */
+    private int pickBranchVariable() {
+        int best = -1;
+        for (int v = 0; v < this.numVars; v++) {
+            if (this.value[v] == 0 && (best < 0 || this.activity[v] > this.activity[best])) {
+                best = v;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * The Luby restart sequence 1 1 2 1 1 2 4 1 1 2 ...
+     * @param i position in the sequence, from 1
+     * @return the i-th term
+     */
+    private static int luby(int i) {
+        int k = 1;
+        while ((1 << k) - 1 < i) {
+            k++;
+        }
+        while (i != (1 << k) - 1) {
+            i -= (1 << (k - 1)) - 1;
+            k = 1;
+            while ((1 << k) - 1 < i) {
+                k++;
+            }
+        }
+        return 1 << (k - 1);
+    }
+
+    /**
+     * A growable list of ints, to keep watch lists and the trail free of boxing.
+     */
+    private static class IntVec {
+        /** the elements, with spare room at the end */
+        private int[] data = new int[4];
+        /** number of elements */
+        private int size;
+
+        int size() { return this.size; }
+
+        int get(int i) { return this.data[i]; }
+
+        void set(int i, int x) { this.data[i] = x; }
+
+        void shrink(int newSize) { this.size = newSize; }
+
+        void add(int x) {
+            if (this.size == this.data.length) {
+                this.data = Arrays.copyOf(this.data, 2 * this.size);
+            }
+            this.data[this.size++] = x;
+        }
+
+        boolean contains(int x) {
+            for (int i = 0; i < this.size; i++) {
+                if (this.data[i] == x) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int[] toArray() { return Arrays.copyOf(this.data, this.size); }
+    }
+}
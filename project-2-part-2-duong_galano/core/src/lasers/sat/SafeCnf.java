@@ -0,0 +1,309 @@
+package lasers.sat;
+
+import lasers.model.SafeFile;
+
+import java.io.FileNotFoundException;
+import java.io.PrintWriter;
+import java.util.*;
+
+/**
+ * Translates a safe into a boolean formula in conjunctive normal form.
+ * There is one variable per empty cell, true when the cell holds a laser.
+ * The clauses say that
+ * <ul>
+ *     <li>every empty cell is lit: some cell in its row or column
+ *     segment (or the cell itself) holds a laser</li>
+ *     <li>no two lasers share an unobstructed row or column segment</li>
+ *     <li>every numbered pillar has exactly that many lasers around it</li>
+ * </ul>
+ * A satisfying assignment maps straight back onto a board printed in the
+ * same form as SafeConfig.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+public class SafeCnf {
+    /** number of rows of the board */
+    private final int row;
+    /** number of columns of the board */
+    private final int col;
+    /** symbol of each cell as read from the file, in row-major order */
+    private final char[] cells;
+    /** DIMACS variable of each empty cell, 0 for walls */
+    private final int[] var;
+    /** number of variables */
+    private int numVars;
+    /** the clauses in DIMACS numbering */
+    private final List<int[]> clauses;
+    /** true if the last solve ran out of time */
+    private boolean expired;
+
+    /**
+     * Encodes the safe in a file
+     * @param filename String for the name of the file
+     * @throws FileNotFoundException if the file does not exist
+     */
+    public SafeCnf(String filename) throws FileNotFoundException {
+        this(SafeFile.read(filename));
+    }
+
+    /**
+     * Encodes a safe that has already been read
+     * @param safe the parsed safe file
+     */
+    public SafeCnf(SafeFile safe) {
+        this.row = safe.getRow();
+        this.col = safe.getCol();
+        this.cells = new char[this.row * this.col];
+        this.var = new int[this.row * this.col];
+        for (int k = 0; k < this.cells.length; k++) {
+            this.cells[k] = safe.getCell(k);
+            if (this.cells[k] == '.') {
+                this.var[k] = ++this.numVars;
+            }
+        }
+        this.clauses = new ArrayList<>();
+        encodeSegments();
+        encodeLit();
+        encodePillars();
+    }
+
+    /**
+     * Adds an at-most-one constraint over every maximal row and column segment
+     */
+    private void encodeSegments() {
+        for (int r = 0; r < this.row; r++) {
+            List<Integer> segment = new ArrayList<>();
+            for (int c = 0; c <= this.col; c++) {
+                if (c < this.col && this.var[r * this.col + c] != 0) {
+                    segment.add(this.var[r * this.col + c]);
+                } else {
+                    atMostOne(segment);
+                    segment.clear();
+                }
+            }
+        }
+        for (int c = 0; c < this.col; c++) {
+            List<Integer> segment = new ArrayList<>();
+            for (int r = 0; r <= this.row; r++) {
+                if (r < this.row && this.var[r * this.col + c] != 0) {
+                    segment.add(this.var[r * this.col + c]);
+                } else {
+                    atMostOne(segment);
+                    segment.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the pairwise clauses forbidding two of the variables to be true
+     * @param vars the variables
+     */
+    private void atMostOne(List<Integer> vars) {
+        for (int a = 0; a < vars.size(); a++) {
+            for (int b = a + 1; b < vars.size(); b++) {
+                this.clauses.add(new int[] {-vars.get(a), -vars.get(b)});
+            }
+        }
+    }
+
+    /**
+     * Adds a clause per empty cell saying one of the cells that could
+     * light it holds a laser
+     */
+    private void encodeLit() {
+        for (int k = 0; k < this.cells.length; k++) {
+            if (this.var[k] == 0) {
+                continue;
+            }
+            int r = k / this.col;
+            int c = k % this.col;
+            List<Integer> clause = new ArrayList<>();
+            clause.add(this.var[k]);
+            for (int j = c - 1; j >= 0 && this.var[r * this.col + j] != 0; j--) {
+                clause.add(this.var[r * this.col + j]);
+            }
+            for (int j = c + 1; j < this.col && this.var[r * this.col + j] != 0; j++) {
+                clause.add(this.var[r * this.col + j]);
+            }
+            for (int i = r - 1; i >= 0 && this.var[i * this.col + c] != 0; i--) {
+                clause.add(this.var[i * this.col + c]);
+            }
+            for (int i = r + 1; i < this.row && this.var[i * this.col + c] != 0; i++) {
+                clause.add(this.var[i * this.col + c]);
+            }
+            this.clauses.add(toArray(clause));
+        }
+    }
+
+    /**
+     * Adds exactly-n constraints for every numbered pillar.  A pillar has
+     * at most four neighbours, so the constraint is spelled out directly:
+     * any n+1 neighbours cannot all be lasers, and any (k-n+1) of the k
+     * neighbours cannot all be empty.
+     */
+    private void encodePillars() {
+        for (int k = 0; k < this.cells.length; k++) {
+            char t = this.cells[k];
+            if (t < '0' || t > '4') {
+                continue;
+            }
+            int need = t - '0';
+            int r = k / this.col;
+            int c = k % this.col;
+            List<Integer> around = new ArrayList<>();
+            if (r > 0 && this.var[k - this.col] != 0) { around.add(this.var[k - this.col]); }
+            if (r < this.row - 1 && this.var[k + this.col] != 0) { around.add(this.var[k + this.col]); }
+            if (c > 0 && this.var[k - 1] != 0) { around.add(this.var[k - 1]); }
+            if (c < this.col - 1 && this.var[k + 1] != 0) { around.add(this.var[k + 1]); }
+            int n = around.size();
+            if (need > n) {
+                this.clauses.add(new int[0]);
+                continue;
+            }
+            for (int mask = 0; mask < (1 << n); mask++) {
+                int size = Integer.bitCount(mask);
+                if (size == need + 1 || size == n - need + 1) {
+                    int[] clause = new int[size];
+                    int m = 0;
+                    for (int b = 0; b < n; b++) {
+                        if ((mask & (1 << b)) != 0) {
+                            clause[m++] = size == need + 1 ? -around.get(b) : around.get(b);
+                        }
+                    }
+                    this.clauses.add(clause);
+                    // both forms have the same size when n = 2*need; add the other too
+                    if (size == need + 1 && size == n - need + 1) {
+                        int[] other = new int[size];
+                        for (int i = 0; i < size; i++) {
+                            other[i] = -clause[i];
+                        }
+                        this.clauses.add(other);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Unboxes a clause
+     * @param clause the literals
+     * @return the literals as an array
+     */
+    private static int[] toArray(List<Integer> clause) {
+        int[] result = new int[clause.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = clause.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the number of variables
+     * @return int for the number of variables
+     */
+    public int getVariableCount() {
+        return this.numVars;
+    }
+
+    /**
+     * Gets the clauses in DIMACS numbering
+     * @return the clauses
+     */
+    public List<int[]> getClauses() {
+        return Collections.unmodifiableList(this.clauses);
+    }
+
+    /**
+     * Solves the formula with the built-in CDCL solver
+     * @return the solved board in SafeConfig's form, or Optional.empty() if no solution
+     */
+    public Optional<String> solve() {
+        return solve(Long.MAX_VALUE);
+    }
+
+    /**
+     * Solves the formula with the built-in CDCL solver, giving up at a deadline
+     * @param deadline time to give up at, in milliseconds since the epoch,
+     *                 or Long.MAX_VALUE for none
+     * @return the solved board in SafeConfig's form, or Optional.empty() if
+     *         no solution or out of time; hasExpired tells the two apart
+     */
+    public Optional<String> solve(long deadline) {
+        CdclSolver solver = new CdclSolver(this.numVars);
+        for (int[] clause : this.clauses) {
+            solver.addClause(clause);
+        }
+        boolean[] model = solver.solve(deadline);
+        this.expired = solver.hasExpired();
+        return model == null ? Optional.empty() : Optional.of(toBoard(model));
+    }
+
+    /**
+     * Did the last solve give up at its deadline?
+     * @return true if the last solve ran out of time
+     */
+    public boolean hasExpired() {
+        return this.expired;
+    }
+
+    /**
+     * Maps a satisfying assignment back onto the board
+     * @param model the value of each variable, indexed from 1
+     * @return the board string, in the same form as SafeConfig
+     */
+    public String toBoard(boolean[] model) {
+        boolean[] lit = new boolean[this.cells.length];
+        for (int k = 0; k < this.cells.length; k++) {
+            if (this.var[k] != 0 && model[this.var[k]]) {
+                int r = k / this.col;
+                int c = k % this.col;
+                for (int j = c; j >= 0 && this.var[r * this.col + j] != 0; j--) { lit[r * this.col + j] = true; }
+                for (int j = c; j < this.col && this.var[r * this.col + j] != 0; j++) { lit[r * this.col + j] = true; }
+                for (int i = r; i >= 0 && this.var[i * this.col + c] != 0; i--) { lit[i * this.col + c] = true; }
+                for (int i = r; i < this.row && this.var[i * this.col + c] != 0; i++) { lit[i * this.col + c] = true; }
+            }
+        }
+        StringBuilder result = new StringBuilder();
+        for (int r = 0; r < this.row; ++r) {
+            result.append("\n");
+            for (int c = 0; c < this.col; ++c) {
+                int k = r * this.col + c;
+                if (this.var[k] != 0 && model[this.var[k]]) {
+                    result.append('L');
+                } else if (lit[k]) {
+                    result.append('*');
+                } else {
+                    result.append(this.cells[k]);
+                }
+                result.append(" ");
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Writes the formula in DIMACS CNF form, with the cell of every
+     * variable listed in comments so models can be mapped back by hand
+     * @param out where to write the formula
+     */
+    public void writeDimacs(PrintWriter out) {
+        out.println("c lasers safe " + this.row + "x" + this.col);
+        for (int k = 0; k < this.cells.length; k++) {
+            if (this.var[k] != 0) {
+                out.println("c " + this.var[k] + " = (" + k / this.col + ", " + k % this.col + ")");
+            }
+        }
+        out.println("p cnf " + this.numVars + " " + this.clauses.size());
+        for (int[] clause : this.clauses) {
+            StringBuilder line = new StringBuilder();
+            for (int lit : clause) {
+                line.append(lit).append(' ');
+            }
+            line.append('0');
+            out.println(line);
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,27 @@
+package lasers.sat;
+
+import java.io.FileNotFoundException;
+import java.io.PrintWriter;
+
+/**
+ * Writes the CNF encoding of a safe in DIMACS form, so it can be checked
+ * against other SAT solvers.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+public class SafeDimacs {
+    public static void main(String[] args) throws FileNotFoundException {
+        if (args.length != 1 && args.length != 2) {
+            System.out.println("Usage: java SafeDimacs safe.in [out.cnf]");
+        } else {
+            SafeCnf cnf = new SafeCnf(args[0]);
+            PrintWriter out = args.length == 2 ?
+                    new PrintWriter(args[1]) : new PrintWriter(System.out);
+            cnf.writeDimacs(out);
+            if (args.length == 2) {
+                out.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+/**
+ * The headless core of the lasers project: the safe model, the solvers
+ * and the plain text UI.  It needs nothing beyond java.base, so batch
+ * solvers can run on a minimal runtime without JavaFX or Swing.  From
+ * the project directory:
+ * <pre>
+ * javac -d out/core $(find core/src -name '*.java')
+ * jlink --module-path out/core --add-modules lasers.core \
+ *       --strip-debug --no-header-files --no-man-pages \
+ *       --launcher safe-solver=lasers.core/lasers.backtracking.SafeSolver \
+ *       --output out/lasers-runtime
+ * out/lasers-runtime/bin/java -Xshare:dump
+ * out/lasers-runtime/bin/safe-solver tests/4x4safe.txt false
+ * </pre>
+ * The runtime is java.base plus this module, about 45 MB.  The dump step
+ * gives it the class data sharing archive jlink leaves out, without which
+ * every start loads the JDK classes from scratch.
+ *
+ * @author Gerald Galano
+ * @author Quynh Duong
+ */
+module lasers.core {
+    exports lasers.backtracking;
+    exports lasers.model;
+    exports lasers.ptui;
+    exports lasers.sat;
+}
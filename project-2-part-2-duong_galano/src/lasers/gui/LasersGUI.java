@@ -2,7 +2,7 @@ package lasers.gui;
 
 import javafx.application.Application;
 import javafx.application.Platform;
-import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.Scene;
@@ -17,7 +17,10 @@ import javax.swing.filechooser.FileSystemView;
 import java.io.File;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
 
+import lasers.backtracking.SolutionCache;
+import lasers.backtracking.SolveResult;
 import lasers.model.*;
 
 /**
@@ -30,6 +33,9 @@ import lasers.model.*;
  * @author Quynh Duong
  */
 public class LasersGUI extends Application implements Observer<LasersModel, ModelData> {
+    /** how long the solve button searches before giving up, in milliseconds */
+    private static final long SOLVE_TIME_LIMIT = 30000;
+
     /** The UI's connection to the lasers.lasers.model */
     private LasersModel model;
     /** The name of the filename for the board */
@@ -38,6 +44,14 @@ public class LasersGUI extends Application implements Observer<LasersModel, Mode
     BorderPane borderPane;
     /** The center of the borderPane, represents the safe tiles */
     GridPane board;
+    /** the button of each tile of the board, by row and column */
+    private Button[][] tiles;
+    /** the row and column of the tile marked red by the last failed check, or null */
+    private int[] flagged;
+    /** the buttons at the bottom of the borderPane */
+    private HBox controls;
+    /** the button that stops a solve in progress */
+    private Button cancel;
 
     /**
      * Initialized the game board by reading in the filename and creating a model based off of it
@@ -49,10 +63,16 @@ public class LasersGUI extends Application implements Observer<LasersModel, Mode
             Parameters params = getParameters();
             this.filename = params.getRaw().get(0);
             this.model = new LasersModel(filename);
+            this.model.setSolveTimeLimit(SOLVE_TIME_LIMIT);
         } catch (FileNotFoundException fnfe) {
             System.out.println(fnfe.getMessage());
             System.exit(-1);
         }
+        try {
+            this.model.setSolutionCache(new SolutionCache(SolutionCache.DEFAULT_DIRECTORY));
+        } catch (IOException ioe) {
+            System.out.println("Solving without a solution cache: " + ioe.getMessage());
+        }
         this.model.addObserver(this);
     }
 
@@ -83,6 +103,8 @@ public class LasersGUI extends Application implements Observer<LasersModel, Mode
         int row = model.getRow();
         int col = model.getCol();
         GridPane gridPane = new GridPane();
+        this.tiles = new Button[row][col];
+        this.flagged = null;
         for (int r=0; r<row; ++r) {
             for (int c=0; c<col; ++c) {
                 Button button = new Button();
@@ -129,6 +151,7 @@ public class LasersGUI extends Application implements Observer<LasersModel, Mode
                         break;
                 }
                 gridPane.add(button, c, r);
+                this.tiles[r][c] = button;
             }
         }
         return gridPane;
@@ -159,13 +182,7 @@ public class LasersGUI extends Application implements Observer<LasersModel, Mode
         check.setOnAction(event -> this.model.check());
         Button hint = new Button("Hint");
         Button solve = new Button("Solve");
-        solve.setOnAction(event -> {
-            try {
-                this.model.solve(this.filename);
-            } catch (FileNotFoundException e) {
-                e.getMessage();
-            }
-        });
+        solve.setOnAction(event -> solve());
         Button restart = new Button("Restart");
         restart.setOnAction(event -> {
             try {
@@ -174,6 +191,10 @@ public class LasersGUI extends Application implements Observer<LasersModel, Mode
                 e.getMessage();
             }
         });
+        Button undo = new Button("Undo");
+        undo.setOnAction(event -> this.model.undo());
+        Button redo = new Button("Redo");
+        redo.setOnAction(event -> this.model.redo());
         Button load = new Button("Load");
         load.setOnAction(event -> {
             try {
@@ -182,10 +203,57 @@ public class LasersGUI extends Application implements Observer<LasersModel, Mode
                 e.printStackTrace();
             }
         });
-        buttons.getChildren().addAll(check, hint, solve, restart, load);
+        this.cancel = new Button("Cancel");
+        this.cancel.setOnAction(event -> this.model.cancelSolve());
+        this.cancel.setDisable(true);
+        buttons.getChildren().addAll(check, hint, solve, restart, undo, redo, load, this.cancel);
+        this.controls = buttons;
         return buttons;
     }
 
+    /**
+     * Solves the safe on a background thread, so that the window stays
+     * responsive and the solve can be cancelled.  The board and every
+     * other button are disabled until the solve ends, since the model
+     * cannot be changed while it is being solved.
+     */
+    private void solve() {
+        String solving = this.filename;
+        Task<Void> task = new Task<Void>() {
+            @Override
+            protected Void call() throws FileNotFoundException {
+                model.solve(solving);
+                return null;
+            }
+        };
+        task.setOnSucceeded(event -> setSolving(false));
+        task.setOnFailed(event -> {
+            setSolving(false);
+            Label failed = new Label("Could not solve " + solving + ": " + task.getException().getMessage());
+            borderPane.setTop(failed);
+            BorderPane.setAlignment(failed, Pos.CENTER);
+        });
+        setSolving(true);
+        Label label = new Label("Solving " + solving + "...");
+        borderPane.setTop(label);
+        BorderPane.setAlignment(label, Pos.CENTER);
+        Thread thread = new Thread(task, "solve");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Enables only the cancel button while a solve runs, and everything
+     * but the cancel button otherwise
+     * @param solving whether a solve is running
+     */
+    private void setSolving(boolean solving) {
+        this.board.setDisable(solving);
+        for (Node node : this.controls.getChildren()) {
+            node.setDisable(node == this.cancel ? !solving : solving);
+        }
+    }
+
     /**
      * The initialization of all GUI component happens here.
      *
@@ -258,21 +326,41 @@ public class LasersGUI extends Application implements Observer<LasersModel, Mode
         int col = model.getCol();
         for (int r = 0; r < row; r++) {
             for (int c = 0; c < col; c++) {
-                ObservableList<Node> children = board.getChildren();
-                Button result = null;
-                for (Node node : children) {
-                    if (GridPane.getRowIndex(node) == r && GridPane.getColumnIndex(node) == c) {
-                        result = (Button) node;
-                    }
-                }
-                if (result != null) {
-                    Button finalResult = result;
-                    int finalR = r;
-                    int finalC = c;
-                    Platform.runLater(() -> updateTile(finalResult, finalR, finalC));
-                }
+                Button result = this.tiles[r][c];
+                int finalR = r;
+                int finalC = c;
+                Platform.runLater(() -> updateTile(result, finalR, finalC));
             }
         }
+        this.flagged = null;
+    }
+
+    /**
+     * Updates only the tiles that changed, and the tile marked red by the
+     * last failed check so that it goes back to normal
+     * @param changes the cells that changed
+     */
+    public void updateView(ChangeSet changes) {
+        if (changes.isResized()) {
+            this.board = makeGridPane();
+            borderPane.setCenter(board);
+            BorderPane.setAlignment(board, Pos.CENTER);
+            updateView();
+            return;
+        }
+        if (this.flagged != null) {
+            Button flaggedTile = this.tiles[this.flagged[0]][this.flagged[1]];
+            int flaggedR = this.flagged[0];
+            int flaggedC = this.flagged[1];
+            Platform.runLater(() -> updateTile(flaggedTile, flaggedR, flaggedC));
+            this.flagged = null;
+        }
+        for (int i = 0; i < changes.size(); i++) {
+            Button result = this.tiles[changes.getRow(i)][changes.getCol(i)];
+            int finalR = changes.getRow(i);
+            int finalC = changes.getCol(i);
+            Platform.runLater(() -> updateTile(result, finalR, finalC));
+        }
     }
 
     /**
@@ -281,29 +369,14 @@ public class LasersGUI extends Application implements Observer<LasersModel, Mode
      * @param colVerify column of the unverified button
      */
     public void updateVerify(int rowVerify, int colVerify) {
-        int row = model.getRow();
-        int col = model.getCol();
-        for (int r = 0; r < row; r++) {
-            for (int c = 0; c < col; c++) {
-                ObservableList<Node> children = board.getChildren();
-                Button result = null;
-                for (Node node : children) {
-                    if (GridPane.getRowIndex(node) == rowVerify && GridPane.getColumnIndex(node) == colVerify) {
-                        result = (Button) node;
-                    }
-                }
-                if (result != null) {
-                    ModelData[][] md = model.getModel();
-                    String value = md[rowVerify][colVerify].getVal();
-                    Button finalResult = result;
-                    if (value.equals(".")) {
-                        Platform.runLater(() -> finalResult.setGraphic(new ImageView(new Image(getClass().getResourceAsStream("resources/red.png")))));
-                    } else {
-                        Platform.runLater(() -> setButtonBackground(finalResult, "red.png"));
-                    }
-                }
-            }
+        Button result = this.tiles[rowVerify][colVerify];
+        String value = model.getModel()[rowVerify][colVerify].getVal();
+        if (value.equals(".")) {
+            Platform.runLater(() -> result.setGraphic(new ImageView(new Image(getClass().getResourceAsStream("resources/red.png")))));
+        } else {
+            Platform.runLater(() -> setButtonBackground(result, "red.png"));
         }
+        this.flagged = new int[] {rowVerify, colVerify};
     }
 
     /**
@@ -313,6 +386,11 @@ public class LasersGUI extends Application implements Observer<LasersModel, Mode
      */
     @Override
     public void update(LasersModel model, ModelData data) {
+        // a solve notifies from its background thread
+        if (!Platform.isFxApplicationThread()) {
+            Platform.runLater(() -> update(model, data));
+            return;
+        }
         ModelData.Commands command = data.getCommand();
         int row = data.getRow();
         int col = data.getCol();
@@ -320,7 +398,7 @@ public class LasersGUI extends Application implements Observer<LasersModel, Mode
             Label add = new Label("Laser added at: (" + row + ", " + col + ")");
             borderPane.setTop(add);
             BorderPane.setAlignment(add, Pos.CENTER);
-            updateView();
+            updateView(data.getChanges());
         } else if (command == ModelData.Commands.ERROR_ADD) {
             Label errorAdd = new Label("Error adding laser at: (" + row + ", " + col + ")");
             borderPane.setTop(errorAdd);
@@ -329,7 +407,7 @@ public class LasersGUI extends Application implements Observer<LasersModel, Mode
             Label remove = new Label("Laser removed at: (" + row + ", " + col + ")");
             borderPane.setTop(remove);
             BorderPane.setAlignment(remove, Pos.CENTER);
-            updateView();
+            updateView(data.getChanges());
         } else if (command == ModelData.Commands.ERROR_REMOVE) {
             Label errorRemove = new Label("Error removing laser at: (" + row + ", " + col + ")");
             borderPane.setTop(errorRemove);
@@ -343,11 +421,34 @@ public class LasersGUI extends Application implements Observer<LasersModel, Mode
             borderPane.setTop(errorVerify);
             BorderPane.setAlignment(errorVerify, Pos.CENTER);
             updateVerify(row, col);
+        } else if (command == ModelData.Commands.UNDO) {
+            Label undo = new Label("Undone at: (" + row + ", " + col + ")");
+            borderPane.setTop(undo);
+            BorderPane.setAlignment(undo, Pos.CENTER);
+            updateView(data.getChanges());
+        } else if (command == ModelData.Commands.ERROR_UNDO) {
+            Label errorUndo = new Label("Nothing to undo");
+            borderPane.setTop(errorUndo);
+            BorderPane.setAlignment(errorUndo, Pos.CENTER);
+        } else if (command == ModelData.Commands.REDO) {
+            Label redo = new Label("Redone at: (" + row + ", " + col + ")");
+            borderPane.setTop(redo);
+            BorderPane.setAlignment(redo, Pos.CENTER);
+            updateView(data.getChanges());
+        } else if (command == ModelData.Commands.ERROR_REDO) {
+            Label errorRedo = new Label("Nothing to redo");
+            borderPane.setTop(errorRedo);
+            BorderPane.setAlignment(errorRedo, Pos.CENTER);
+        } else if (command == ModelData.Commands.BATCH) {
+            Label batch = new Label("Cells changed: " + data.getChanges().size());
+            borderPane.setTop(batch);
+            BorderPane.setAlignment(batch, Pos.CENTER);
+            updateView(data.getChanges());
         } else if (command == ModelData.Commands.RESET) {
             Label reset = new Label(this.filename + " has been reset");
             borderPane.setTop(reset);
             BorderPane.setAlignment(reset, Pos.CENTER);
-            updateView();
+            updateView(data.getChanges());
         } else if (command == ModelData.Commands.LOAD) {
             this.board = makeGridPane();
             borderPane.setCenter(board);
@@ -360,7 +461,23 @@ public class LasersGUI extends Application implements Observer<LasersModel, Mode
             Label solve = new Label(this.filename + " solved!");
             borderPane.setTop(solve);
             BorderPane.setAlignment(solve, Pos.CENTER);
-            updateView();
+            updateView(data.getChanges());
+        } else if (command == ModelData.Commands.ERROR_SOLVE) {
+            SolveResult result = model.getLastSolve();
+            String message;
+            if (result.getStatus() == SolveResult.Status.UNSATISFIABLE) {
+                message = this.filename + " has no solution";
+            } else if (result.getStatus() == SolveResult.Status.CANCELLED) {
+                message = "Cancelled after " + result.getNodes() + " configurations, " +
+                        result.getDepth() + " decisions in";
+            } else {
+                message = "Gave up after " + result.getNodes() + " configurations, " +
+                        result.getDepth() + " decisions in";
+            }
+            Label errorSolve = new Label(message);
+            borderPane.setTop(errorSolve);
+            BorderPane.setAlignment(errorSolve, Pos.CENTER);
+            updateView(data.getChanges());
         }
     }
 }
@@ -1,6 +1,7 @@
 module LasersGUI {
     requires transitive javafx.controls;
     requires java.desktop;
+    requires lasers.core;
     exports lasers;
     exports lasers.gui;
-}
\ No newline at end of file
+}